@@ -0,0 +1,84 @@
+package io.github.amerebagatelle.fabricskyboxes;
+
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.MonoColorSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SkyboxType;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.AnimatedSquareTexturedSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SpriteSheetSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SquareTexturedSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Conditions;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Decorations;
+import io.github.amerebagatelle.fabricskyboxes.util.object.DefaultProperties;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Fade;
+import io.github.amerebagatelle.fabricskyboxes.util.object.HeightEntry;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Textures;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Weather;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.BuiltinRegistries;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Shared setup for the benchmarks, which run outside of the game against stubbed world and player state.
+ */
+public final class BenchmarkSupport {
+    public static final Identifier OVERWORLD = new Identifier("overworld");
+    public static final Identifier PLAINS = new Identifier("plains");
+    public static final Decorations NO_DECORATIONS = new Decorations(Decorations.SUN, Decorations.MOON_PHASES, false, false, false);
+    private static boolean initialized;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Initializes the vanilla registries and registers the built in skybox types. Safe to call more than once.
+     */
+    public static synchronized void bootstrap() {
+        if (!initialized) {
+            Bootstrap.initialize();
+            SkyboxManager.registerSkyboxType(SkyboxType.of(AnimatedSquareTexturedSkybox::new));
+            SkyboxManager.registerSkyboxType(SkyboxType.of(SquareTexturedSkybox::new));
+            SkyboxManager.registerSkyboxType(SkyboxType.of(MonoColorSkybox::new));
+            SkyboxManager.registerSkyboxType(SkyboxType.of(SpriteSheetSkybox::new));
+            initialized = true;
+        }
+    }
+
+    /**
+     * @return The state of a player standing in a clear plains biome of the overworld.
+     */
+    public static EnvironmentSnapshot createEnvironment(double playerY, int timeOfDay) {
+        Registry<Biome> biomes = BuiltinRegistries.BIOME;
+        EnvironmentSnapshot environment = new EnvironmentSnapshot();
+        environment.set(World.OVERWORLD, biomes, biomes.getRawId(biomes.get(PLAINS)), Weather.CLEAR.getMask(), playerY, timeOfDay);
+        return environment;
+    }
+
+    /**
+     * @return Conditions that hold for the environment returned by {@link #createEnvironment(double, int)} at a height of 64.
+     */
+    public static Conditions createConditions() {
+        return new Conditions.Builder()
+                .worlds(OVERWORLD)
+                .biomes(new Identifier("desert"), new Identifier("forest"), PLAINS)
+                .weather(Weather.CLEAR)
+                .heights(new HeightEntry(0, 32), new HeightEntry(40, 120))
+                .build();
+    }
+
+    /**
+     * @return A square textured skybox that renders without a world, as it neither rotates nor has decorations.
+     */
+    public static SquareTexturedSkybox createSquareSkybox(int priority, Fade fade) {
+        DefaultProperties properties = new DefaultProperties.Builder()
+                .fade(fade)
+                .transitionSpeed(0.05F)
+                .priority(priority)
+                .build();
+        Identifier texture = new Identifier(FabricSkyBoxesClient.MODID, "sky/benchmark_" + priority + ".png");
+        return new SquareTexturedSkybox(properties, createConditions(), NO_DECORATIONS, true, new Textures(texture, texture, texture, texture, texture, texture));
+    }
+}
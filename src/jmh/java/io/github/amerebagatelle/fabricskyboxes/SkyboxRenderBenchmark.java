@@ -0,0 +1,76 @@
+package io.github.amerebagatelle.fabricskyboxes;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.amerebagatelle.fabricskyboxes.render.RecordingSkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Fade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.client.util.math.MatrixStack;
+
+/**
+ * Measures a frame and a tick of the {@link SkyboxManager} with a number of visible skyboxes.
+ * Rendering goes to a {@link RecordingSkyRenderBackend}, so this covers the CPU side of rendering without any GL calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SkyboxRenderBenchmark {
+    @Param({"1", "50", "1000"})
+    public int skyboxes;
+
+    private final MatrixStack matrices = new MatrixStack();
+    private SkyboxManager manager;
+    private SkyRenderBackend previousBackend;
+    private EnvironmentSnapshot environment;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        this.manager = SkyboxManager.getInstance();
+        this.manager.clearSkyboxes();
+        for (int i = 0; i < this.skyboxes; i++) {
+            this.manager.addSkybox(BenchmarkSupport.createSquareSkybox(i, new Fade(0, 0, 0, 0, true)));
+        }
+        RecordingSkyRenderBackend backend = new RecordingSkyRenderBackend();
+        backend.setRecordCommands(false);
+        this.previousBackend = this.manager.getRenderBackend();
+        this.manager.setRenderBackend(backend);
+        this.environment = BenchmarkSupport.createEnvironment(64.0D, 6000);
+        // twice, so that the previous alpha is set as well
+        this.manager.tick(this.environment);
+        this.manager.tick(this.environment);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.manager.setRenderBackend(this.previousBackend);
+        this.manager.clearSkyboxes();
+    }
+
+    @Benchmark
+    public void renderSkyboxes() {
+        this.manager.renderSkyboxes(null, this.matrices, 0.5F);
+    }
+
+    @Benchmark
+    public void tick() {
+        this.manager.tick(this.environment);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.amerebagatelle.fabricskyboxes.BenchmarkSupport;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares decoding the same skyboxes from schema version 1 json, which is parsed by hand, and from schema version 2
+ * json, which is decoded with codecs. The json text is parsed up front, so only the decoding is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SkyboxParseBenchmark {
+    private static final String MONO_COLOR_V1 = "{\"type\":\"monocolor\",\"startFadeIn\":1000,\"endFadeIn\":2000,\"startFadeOut\":11000,\"endFadeOut\":12000,"
+            + "\"maxAlpha\":0.9,\"transitionSpeed\":0.05,\"changeFog\":true,\"fogRed\":0.5,\"fogGreen\":0.6,\"fogBlue\":0.7,"
+            + "\"weather\":[\"clear\"],\"biomes\":[\"minecraft:plains\",\"minecraft:forest\"],\"dimensions\":[\"minecraft:overworld\"],"
+            + "\"heightRanges\":[[40,120]],\"red\":0.5,\"green\":0.6,\"blue\":0.7}";
+    private static final String MONO_COLOR_V2 = "{\"schemaVersion\":2,\"type\":\"monocolor\","
+            + "\"properties\":{\"fade\":{\"startFadeIn\":1000,\"endFadeIn\":2000,\"startFadeOut\":11000,\"endFadeOut\":12000},"
+            + "\"maxAlpha\":0.9,\"transitionSpeed\":0.05,\"changeFog\":true,\"fogColors\":{\"red\":0.5,\"green\":0.6,\"blue\":0.7}},"
+            + "\"conditions\":{\"weather\":[\"clear\"],\"biomes\":[\"minecraft:plains\",\"minecraft:forest\"],\"worlds\":[\"minecraft:overworld\"],"
+            + "\"heights\":[{\"min\":40,\"max\":120}]},\"color\":{\"red\":0.5,\"green\":0.6,\"blue\":0.7}}";
+    private static final String SQUARE_TEXTURED_V1 = "{\"type\":\"square-textured\",\"startFadeIn\":1000,\"endFadeIn\":2000,\"startFadeOut\":11000,\"endFadeOut\":12000,"
+            + "\"maxAlpha\":0.9,\"transitionSpeed\":0.05,\"shouldRotate\":true,\"axis\":[0.0,0.5,0.0],\"shouldBlend\":true,"
+            + "\"weather\":[\"clear\"],\"biomes\":[\"minecraft:plains\",\"minecraft:forest\"],\"dimensions\":[\"minecraft:overworld\"],"
+            + "\"heightRanges\":[[40,120]],"
+            + "\"texture_north\":\"fabricskyboxes:sky/north.png\",\"texture_south\":\"fabricskyboxes:sky/south.png\","
+            + "\"texture_east\":\"fabricskyboxes:sky/east.png\",\"texture_west\":\"fabricskyboxes:sky/west.png\","
+            + "\"texture_top\":\"fabricskyboxes:sky/top.png\",\"texture_bottom\":\"fabricskyboxes:sky/bottom.png\"}";
+    private static final String SQUARE_TEXTURED_V2 = "{\"schemaVersion\":2,\"type\":\"square-textured\","
+            + "\"properties\":{\"fade\":{\"startFadeIn\":1000,\"endFadeIn\":2000,\"startFadeOut\":11000,\"endFadeOut\":12000},"
+            + "\"maxAlpha\":0.9,\"transitionSpeed\":0.05,\"shouldRotate\":true,\"rotation\":{\"static\":[0.0,0.0,0.0],\"axis\":[0.0,0.5,0.0]}},"
+            + "\"conditions\":{\"weather\":[\"clear\"],\"biomes\":[\"minecraft:plains\",\"minecraft:forest\"],\"worlds\":[\"minecraft:overworld\"],"
+            + "\"heights\":[{\"min\":40,\"max\":120}]},\"blend\":true,"
+            + "\"textures\":{\"north\":\"fabricskyboxes:sky/north.png\",\"south\":\"fabricskyboxes:sky/south.png\","
+            + "\"east\":\"fabricskyboxes:sky/east.png\",\"west\":\"fabricskyboxes:sky/west.png\","
+            + "\"top\":\"fabricskyboxes:sky/top.png\",\"bottom\":\"fabricskyboxes:sky/bottom.png\"}}";
+
+    private final SkyboxResourceListener listener = new SkyboxResourceListener();
+    private JsonObjectWrapper monoColorV1;
+    private JsonObjectWrapper monoColorV2;
+    private JsonObjectWrapper squareTexturedV1;
+    private JsonObjectWrapper squareTexturedV2;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        this.monoColorV1 = wrap(MONO_COLOR_V1);
+        this.monoColorV2 = wrap(MONO_COLOR_V2);
+        this.squareTexturedV1 = wrap(SQUARE_TEXTURED_V1);
+        this.squareTexturedV2 = wrap(SQUARE_TEXTURED_V2);
+    }
+
+    @Benchmark
+    public AbstractSkybox monoColorV1() {
+        return this.listener.parseSkyboxJson(this.monoColorV1);
+    }
+
+    @Benchmark
+    public AbstractSkybox monoColorV2() {
+        return this.listener.parseSkyboxJson(this.monoColorV2);
+    }
+
+    @Benchmark
+    public AbstractSkybox squareTexturedV1() {
+        return this.listener.parseSkyboxJson(this.squareTexturedV1);
+    }
+
+    @Benchmark
+    public AbstractSkybox squareTexturedV2() {
+        return this.listener.parseSkyboxJson(this.squareTexturedV2);
+    }
+
+    private static JsonObjectWrapper wrap(String json) {
+        JsonObjectWrapper wrapper = new JsonObjectWrapper();
+        wrapper.setFocusedObject(new Gson().fromJson(json, JsonObject.class));
+        return wrapper;
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.amerebagatelle.fabricskyboxes.BenchmarkSupport;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Fade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per tick and per frame work done for a single skybox: checking its conditions and interpolating its alpha.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SkyboxConditionsBenchmark {
+    private AbstractSkybox skybox;
+    private EnvironmentSnapshot environment;
+    private float tickDelta;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        this.skybox = BenchmarkSupport.createSquareSkybox(0, new Fade(1000, 2000, 11000, 12000, false));
+        this.environment = BenchmarkSupport.createEnvironment(64.0D, 6000);
+        this.skybox.tick(this.environment);
+        this.skybox.tick(this.environment);
+        this.tickDelta = 0.5F;
+    }
+
+    @Benchmark
+    public float getAlpha() {
+        return this.skybox.getAlpha(this.tickDelta);
+    }
+
+    @Benchmark
+    public boolean checkBiomes() {
+        return this.skybox.checkBiomes(this.environment);
+    }
+
+    @Benchmark
+    public boolean checkHeights() {
+        return this.skybox.checkHeights(this.environment);
+    }
+
+    @Benchmark
+    public boolean checkWeather() {
+        return this.skybox.checkWeather(this.environment);
+    }
+
+    @Benchmark
+    public float tick() {
+        this.skybox.tick(this.environment);
+        return this.skybox.alpha;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.amerebagatelle.fabricskyboxes.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * Measures the accessors used when parsing schema version 1 skyboxes, for keys that are present and keys that are not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonObjectWrapperBenchmark {
+    private final JsonObjectWrapper wrapper = new JsonObjectWrapper();
+
+    @Setup
+    public void setup() {
+        this.wrapper.setFocusedObject(new Gson().fromJson("{\"maxAlpha\":0.9,\"shouldBlend\":true,\"axis\":[0.0,0.5,0.0],"
+                + "\"texture_north\":\"fabricskyboxes:sky/north.png\"}", JsonObject.class));
+    }
+
+    @Benchmark
+    public JsonElement get() {
+        return this.wrapper.get("maxAlpha");
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return this.wrapper.contains("maxAlpha");
+    }
+
+    @Benchmark
+    public float getOptionalFloat() {
+        return this.wrapper.getOptionalFloat("maxAlpha", 1.0F);
+    }
+
+    @Benchmark
+    public float getOptionalFloatMissing() {
+        return this.wrapper.getOptionalFloat("transitionSpeed", 1.0F);
+    }
+
+    @Benchmark
+    public boolean getOptionalBoolean() {
+        return this.wrapper.getOptionalBoolean("shouldBlend", false);
+    }
+
+    @Benchmark
+    public float getOptionalArrayFloat() {
+        return this.wrapper.getOptionalArrayFloat("axis", 1, 0.0F);
+    }
+
+    @Benchmark
+    public Identifier getJsonStringAsId() {
+        return this.wrapper.getJsonStringAsId("texture_north");
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.amerebagatelle.fabricskyboxes;
+
+import java.util.function.Predicate;
+
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+
+/**
+ * The skyboxes that are currently rendered, kept sorted by {@link AbstractSkybox#layerIndex}.
+ *
+ * <p>Membership is tracked with a flag per layer index, so checking, adding and
+ * removing skyboxes never allocates and never walks more than the active skyboxes.</p>
+ */
+public class ActiveSkyboxSet {
+    private AbstractSkybox[] skyboxes = new AbstractSkybox[0];
+    private boolean[] members = new boolean[0];
+    private int size;
+
+    /**
+     * Empties the set and resizes it for the given amount of loaded skyboxes.
+     */
+    public void reset(int capacity) {
+        this.skyboxes = new AbstractSkybox[capacity];
+        this.members = new boolean[capacity];
+        this.size = 0;
+    }
+
+    public boolean contains(AbstractSkybox skybox) {
+        return this.members[skybox.layerIndex];
+    }
+
+    /**
+     * Inserts the skybox at its position in the render order, if it is not already present.
+     */
+    public void add(AbstractSkybox skybox) {
+        if (this.contains(skybox)) {
+            return;
+        }
+        int i = this.size;
+        while (i > 0 && this.skyboxes[i - 1].layerIndex > skybox.layerIndex) {
+            this.skyboxes[i] = this.skyboxes[i - 1];
+            i--;
+        }
+        this.skyboxes[i] = skybox;
+        this.members[skybox.layerIndex] = true;
+        this.size++;
+    }
+
+    public void removeIf(Predicate<AbstractSkybox> predicate) {
+        int j = 0;
+        for (int i = 0; i < this.size; i++) {
+            AbstractSkybox skybox = this.skyboxes[i];
+            if (predicate.test(skybox)) {
+                this.members[skybox.layerIndex] = false;
+            } else {
+                this.skyboxes[j++] = skybox;
+            }
+        }
+        for (int i = j; i < this.size; i++) {
+            this.skyboxes[i] = null;
+        }
+        this.size = j;
+    }
+
+    public AbstractSkybox get(int i) {
+        return this.skyboxes[i];
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
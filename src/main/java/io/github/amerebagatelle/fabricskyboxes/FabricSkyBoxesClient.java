@@ -1,8 +1,11 @@
 package io.github.amerebagatelle.fabricskyboxes;
 
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxProfiler;
 import io.github.amerebagatelle.fabricskyboxes.resource.SkyboxResourceListener;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.MonoColorSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SkyboxType;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.AnimatedSquareTexturedSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SpriteSheetSkybox;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SquareTexturedSkybox;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
@@ -21,9 +24,14 @@ public class FabricSkyBoxesClient implements ClientModInitializer {
     public void onInitializeClient() {
         ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SkyboxResourceListener());
 
-        SkyboxManager.addSkyboxType(AnimatedSquareTexturedSkybox::new);
-        SkyboxManager.addSkyboxType(SquareTexturedSkybox::new);
-        SkyboxManager.addSkyboxType(MonoColorSkybox::new);
+        SkyboxManager.registerSkyboxType(SkyboxType.of(AnimatedSquareTexturedSkybox::new));
+        SkyboxManager.registerSkyboxType(SkyboxType.of(SquareTexturedSkybox::new));
+        SkyboxManager.registerSkyboxType(SkyboxType.of(MonoColorSkybox::new));
+        SkyboxManager.registerSkyboxType(SkyboxType.of(SpriteSheetSkybox::new));
+
+        if (Boolean.getBoolean("fabricskyboxes.profiler")) {
+            SkyboxProfiler.getInstance().start();
+        }
     }
 
     public static Logger getLogger() {
@@ -0,0 +1,64 @@
+package io.github.amerebagatelle.fabricskyboxes;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Maps a world and a biome to the skyboxes whose world and biome conditions could match there.
+ *
+ * <p>Entries are built the first time a world/biome pair is seen and kept until the
+ * skyboxes are reloaded or the biome registry changes, so that only the skyboxes that
+ * could apply at the player's position are updated every tick.</p>
+ */
+public class SkyboxIndex {
+    private final List<AbstractSkybox> skyboxes;
+    private final Map<RegistryKey<World>, Int2ObjectMap<List<AbstractSkybox>>> candidates = new IdentityHashMap<>();
+    private Registry<Biome> biomeRegistry;
+
+    public SkyboxIndex(List<AbstractSkybox> skyboxes) {
+        this.skyboxes = skyboxes;
+    }
+
+    /**
+     * @return The skyboxes that could apply for the world and biome in the given environment.
+     */
+    public List<AbstractSkybox> getCandidates(EnvironmentSnapshot environment) {
+        if (this.biomeRegistry != environment.getBiomeRegistry()) {
+            // raw ids are only valid for the registry they came from
+            this.invalidate();
+            this.biomeRegistry = environment.getBiomeRegistry();
+        }
+        Int2ObjectMap<List<AbstractSkybox>> byBiome = this.candidates.computeIfAbsent(environment.getWorldKey(), key -> new Int2ObjectOpenHashMap<>());
+        List<AbstractSkybox> list = byBiome.get(environment.getBiomeRawId());
+        if (list == null) {
+            list = new ArrayList<>();
+            for (AbstractSkybox skybox : this.skyboxes) {
+                // skyboxes that are always on ignore their conditions
+                if (skybox.getFade().isAlwaysOn() || skybox.getCompiledConditions().testBiomes(environment)) {
+                    list.add(skybox);
+                }
+            }
+            byBiome.put(environment.getBiomeRawId(), list);
+        }
+        return list;
+    }
+
+    /**
+     * Drops all cached entries. Must be called whenever the skybox list changes.
+     */
+    public void invalidate() {
+        this.candidates.clear();
+    }
+}
@@ -1,16 +1,33 @@
 package io.github.amerebagatelle.fabricskyboxes;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxProfiler;
 import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
+import io.github.amerebagatelle.fabricskyboxes.render.GlSkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyFrustum;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.resource.TextureResidency;
+import io.github.amerebagatelle.fabricskyboxes.resource.TextureUploadQueue;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SkyboxType;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.RenderStateTracker;
 
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.Identifier;
 
 public class SkyboxManager {
     private static final SkyboxManager INSTANCE = new SkyboxManager();
@@ -22,49 +39,243 @@ public class SkyboxManager {
 
     private boolean decorationsRendered;
 
-    private static final List<Supplier<? extends AbstractSkybox>> SKYBOX_TYPES = Lists.newArrayList();
+    private static final Map<Identifier, SkyboxType<?>> SKYBOX_TYPES = Maps.newLinkedHashMap();
 
+    /**
+     * Registers a skybox type, so that skyboxes of that type can be loaded from json.
+     * Other mods should call this from their client initializer.
+     */
+    public static void registerSkyboxType(SkyboxType<?> skyboxType) {
+        if (SKYBOX_TYPES.putIfAbsent(skyboxType.getId(), skyboxType) != null) {
+            throw new IllegalStateException("Skybox type " + skyboxType.getId() + " is already registered");
+        }
+    }
+
+    /**
+     * @deprecated Use {@link #registerSkyboxType(SkyboxType)}.
+     */
+    @Deprecated
     public static void addSkyboxType(Supplier<? extends AbstractSkybox> skyboxSupplier) {
-        SKYBOX_TYPES.add(skyboxSupplier);
+        registerSkyboxType(SkyboxType.of(skyboxSupplier));
+    }
+
+    /**
+     * @param type The type as written in the skybox json.
+     * @return The registered type, or null if there is none.
+     */
+    public static SkyboxType<?> getSkyboxType(String type) {
+        return SKYBOX_TYPES.get(SkyboxType.parseId(type));
+    }
+
+    public static Collection<SkyboxType<?>> getRegisteredSkyboxTypes() {
+        return Collections.unmodifiableCollection(SKYBOX_TYPES.values());
     }
 
+    /**
+     * @deprecated Use {@link #getRegisteredSkyboxTypes()}. The returned list is a copy, adding to it does not register a type.
+     */
+    @Deprecated
     public static List<Supplier<? extends AbstractSkybox>> getSkyboxTypes() {
-        return SKYBOX_TYPES;
+        List<Supplier<? extends AbstractSkybox>> suppliers = new ArrayList<>(SKYBOX_TYPES.size());
+        for (SkyboxType<?> skyboxType : SKYBOX_TYPES.values()) {
+            suppliers.add(skyboxType::create);
+        }
+        return suppliers;
     }
 
     private static final ArrayList<AbstractSkybox> skyboxes = new ArrayList<>();
-    private final LinkedList<AbstractSkybox> activeSkyboxes = new LinkedList<>();
+    /**
+     * The skyboxes to render, ordered by priority so that layering is deterministic.
+     */
+    private final ActiveSkyboxSet activeSkyboxes = new ActiveSkyboxSet();
+    private boolean sorted = true;
+    /**
+     * Skyboxes with a non-zero alpha. These are updated even when they no longer apply, so that they can fade out.
+     */
+    private final Set<AbstractSkybox> visibleSkyboxes = Sets.newLinkedHashSet();
+    private final Set<AbstractSkybox> updatedSkyboxes = Sets.newLinkedHashSet();
+    private final SkyboxIndex index = new SkyboxIndex(skyboxes);
+    private final EnvironmentSnapshot environment = new EnvironmentSnapshot();
+    private final RenderStateTracker renderState = new RenderStateTracker(new GlSkyRenderBackend());
+    private final SkyFrustum frustum = new SkyFrustum();
 
     public void addSkybox(AbstractSkybox skybox) {
         skyboxes.add(Objects.requireNonNull(skybox));
+        index.invalidate();
+        sorted = false;
     }
 
     public void clearSkyboxes() {
         skyboxes.clear();
-        activeSkyboxes.clear();
+        SkyboxProfiler.getInstance().reset();
+        activeSkyboxes.reset(0);
+        visibleSkyboxes.clear();
+        index.invalidate();
+        shouldChangeFog = false;
+    }
+
+    public int getSkyboxCount() {
+        return skyboxes.size();
     }
 
-    public float getTotalAlpha() {
+    public float getTotalAlpha(float tickDelta) {
         float f = 0f;
-        for (AbstractSkybox skybox : skyboxes) {
-            f += skybox.getAlpha();
+        for (AbstractSkybox skybox : visibleSkyboxes) {
+            f += skybox.getAlpha(tickDelta);
         }
         return f;
     }
 
-    public void renderSkyboxes(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
+    /**
+     * Updates the alpha of every skybox and the set of active skyboxes. Called once per client tick.
+     */
+    public void tick() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null || client.player == null) {
+            // the fog of the last world must not carry over to the next one
+            shouldChangeFog = false;
+            return;
+        }
+        environment.update(client.world, client.player);
+        tick(environment);
+    }
+
+    /**
+     * Updates the skyboxes against the given state instead of the state of the client.
+     */
+    public void tick(EnvironmentSnapshot environment) {
+        if (!sorted) {
+            sortSkyboxes();
+        }
+        SkyboxEvents.Span span = SkyboxEvents.skyTick();
+        shouldChangeFog = false;
+        TextureUploadQueue.getInstance().prioritize(environment);
+        SkyboxProfiler profiler = SkyboxProfiler.getInstance();
+        boolean profiling = profiler.isEnabled();
+        if (profiling) {
+            profiler.beginTick();
+        }
+        updatedSkyboxes.clear();
+        for (AbstractSkybox skybox : index.getCandidates(environment)) {
+            tickSkybox(skybox, environment, profiling);
+            updatedSkyboxes.add(skybox);
+        }
+        for (AbstractSkybox skybox : visibleSkyboxes) {
+            if (updatedSkyboxes.add(skybox)) {
+                tickSkybox(skybox, environment, profiling);
+            }
+        }
+        visibleSkyboxes.clear();
+        for (AbstractSkybox skybox : updatedSkyboxes) {
+            // skyboxes whose textures are still being uploaded are left out, so that the vanilla sky is rendered instead
+            if ((skybox.alpha > 0f || skybox.prevAlpha > 0f) && skybox.isResident()) {
+                visibleSkyboxes.add(skybox);
+            }
+        }
         // Add the skyboxes to a activeSkyboxes container so that they can be ordered
-        for (AbstractSkybox skybox : skyboxes) {
-            if (!activeSkyboxes.contains(skybox) && skybox.alpha >= 0.1) {
+        for (AbstractSkybox skybox : visibleSkyboxes) {
+            if (skybox.alpha >= 0.1) {
                 activeSkyboxes.add(skybox);
             }
         }
+        activeSkyboxes.removeIf((skybox) -> skybox.alpha <= 0.1);
+        TextureResidency.getInstance().tick(environment);
+        span.count(updatedSkyboxes.size()).end();
+    }
+
+    private void tickSkybox(AbstractSkybox skybox, EnvironmentSnapshot environment, boolean profiling) {
+        if (profiling) {
+            SkyboxProfiler.getInstance().beginSkyboxTick();
+            skybox.tick(environment);
+            SkyboxProfiler.getInstance().endSkyboxTick(skybox);
+        } else {
+            skybox.tick(environment);
+        }
+    }
+
+    /**
+     * Orders the skyboxes by priority, keeping the load order for equal priorities, and assigns their layer indices.
+     */
+    private void sortSkyboxes() {
+        skyboxes.sort(Comparator.comparingInt(AbstractSkybox::getPriority));
+        for (int i = 0; i < skyboxes.size(); i++) {
+            skyboxes.get(i).layerIndex = i;
+        }
+        activeSkyboxes.reset(skyboxes.size());
+        visibleSkyboxes.clear();
+        index.invalidate();
+        sorted = true;
+    }
+
+    public void renderSkyboxes(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
+        int firstLayer = this.getTopmostOpaqueLayer(tickDelta);
         // whether we should render the decorations, makes sure we don't get two suns
         decorationsRendered = false;
-        for (AbstractSkybox skybox : activeSkyboxes) {
-            skybox.render(worldRendererAccess, matrices, tickDelta);
+        SkyRenderBackend backend = renderState.getBackend();
+        SkyboxEvents.Span span = SkyboxEvents.skyFrame().count(activeSkyboxes.size() - firstLayer);
+        SkyboxProfiler profiler = SkyboxProfiler.getInstance();
+        boolean profiling = profiler.isEnabled();
+        if (profiling) {
+            profiler.beginFrame(activeSkyboxes.size(), firstLayer);
+        }
+        backend.beginFrame();
+        renderState.begin();
+        for (int i = firstLayer; i < activeSkyboxes.size(); i++) {
+            AbstractSkybox skybox = activeSkyboxes.get(i);
+            if (profiling) {
+                profiler.beginSkybox(skybox);
+                skybox.render(worldRendererAccess, matrices, tickDelta);
+                profiler.endSkybox();
+            } else {
+                skybox.render(worldRendererAccess, matrices, tickDelta);
+            }
+        }
+        renderState.end();
+        backend.endFrame();
+        if (profiling) {
+            profiler.endFrame(renderState);
         }
-        activeSkyboxes.removeIf((skybox) -> skybox.getAlpha() <= 0.1);
+        span.end();
+    }
+
+    /**
+     * @return The index of the topmost active skybox that hides everything rendered before it, or 0 if there is none.
+     */
+    private int getTopmostOpaqueLayer(float tickDelta) {
+        for (int i = activeSkyboxes.size() - 1; i > 0; i--) {
+            if (activeSkyboxes.get(i).isOpaque(tickDelta)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The tracker that skyboxes should change the render state through.
+     */
+    public RenderStateTracker getRenderState() {
+        return renderState;
+    }
+
+    /**
+     * @return The projection of the frame being rendered, which skyboxes can skip invisible geometry with.
+     */
+    public SkyFrustum getFrustum() {
+        return frustum;
+    }
+
+    /**
+     * @return The backend that skyboxes render with.
+     */
+    public SkyRenderBackend getRenderBackend() {
+        return renderState.getBackend();
+    }
+
+    /**
+     * Replaces the backend that skyboxes render with, such as with a {@link io.github.amerebagatelle.fabricskyboxes.render.RecordingSkyRenderBackend} to measure rendering without a GL context.
+     */
+    public void setRenderBackend(SkyRenderBackend backend) {
+        renderState.setBackend(Objects.requireNonNull(backend));
     }
 
     public boolean hasRenderedDecorations() {
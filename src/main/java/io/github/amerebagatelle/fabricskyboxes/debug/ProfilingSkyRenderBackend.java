@@ -0,0 +1,72 @@
+package io.github.amerebagatelle.fabricskyboxes.debug;
+
+import io.github.amerebagatelle.fabricskyboxes.render.SkyMesh;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import com.mojang.blaze3d.platform.GlStateManager;
+
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * Passes everything on to another backend, counting the draw calls and texture binds for the {@link SkyboxProfiler}.
+ */
+class ProfilingSkyRenderBackend implements SkyRenderBackend {
+    private final SkyRenderBackend delegate;
+    private final SkyboxProfiler profiler;
+
+    ProfilingSkyRenderBackend(SkyRenderBackend delegate, SkyboxProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    SkyRenderBackend getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public void beginFrame() {
+        this.delegate.beginFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        this.delegate.endFrame();
+    }
+
+    @Override
+    public void bindTexture(Identifier texture) {
+        this.profiler.onBind();
+        this.delegate.bindTexture(texture);
+    }
+
+    @Override
+    public void color(float red, float green, float blue, float alpha) {
+        this.delegate.color(red, green, blue, alpha);
+    }
+
+    @Override
+    public void draw(SkyMesh mesh, int variant, Matrix4f matrix) {
+        this.profiler.onDraw();
+        this.delegate.draw(mesh, variant, matrix);
+    }
+
+    @Override
+    public void setCapability(Capability capability, boolean enabled) {
+        this.delegate.setCapability(capability, enabled);
+    }
+
+    @Override
+    public void blendFunc(GlStateManager.SrcFactor srcFactor, GlStateManager.DstFactor dstFactor, GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha) {
+        this.delegate.blendFunc(srcFactor, dstFactor, srcAlpha, dstAlpha);
+    }
+
+    @Override
+    public void setTextureTransform(float scaleU, float scaleV, float offsetU, float offsetV) {
+        this.delegate.setTextureTransform(scaleU, scaleV, offsetU, offsetV);
+    }
+
+    @Override
+    public void resetTextureTransform() {
+        this.delegate.resetTextureTransform();
+    }
+}
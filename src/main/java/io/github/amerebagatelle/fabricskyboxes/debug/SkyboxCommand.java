@@ -0,0 +1,73 @@
+package io.github.amerebagatelle.fabricskyboxes.debug;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.LiteralText;
+import net.minecraft.util.Formatting;
+
+/**
+ * The {@code /fabricskyboxes} client command. It is handled before chat messages are sent, so it works on any server.
+ *
+ * <ul>
+ *     <li>{@code /fabricskyboxes profiler start} starts the {@link SkyboxProfiler}, shown in the debug overlay.</li>
+ *     <li>{@code /fabricskyboxes profiler stop} stops it.</li>
+ *     <li>{@code /fabricskyboxes profiler reset} drops the measurements so far.</li>
+ *     <li>{@code /fabricskyboxes profiler dump} writes the measurements to a json file in the {@code debug} folder.</li>
+ * </ul>
+ */
+public final class SkyboxCommand {
+    private static final String COMMAND = "/" + FabricSkyBoxesClient.MODID;
+
+    private SkyboxCommand() {
+    }
+
+    /**
+     * @param message The chat message about to be sent.
+     * @return Whether the message was this command, in which case it must not be sent.
+     */
+    public static boolean execute(String message) {
+        if (!message.equals(COMMAND) && !message.startsWith(COMMAND + " ")) {
+            return false;
+        }
+        String[] args = message.substring(COMMAND.length()).trim().split("\\s+");
+        if (args.length != 2 || !args[0].equals("profiler")) {
+            feedback("Usage: " + COMMAND + " profiler <start|stop|reset|dump>", Formatting.RED);
+            return true;
+        }
+        SkyboxProfiler profiler = SkyboxProfiler.getInstance();
+        switch (args[1]) {
+            case "start":
+                profiler.start();
+                feedback("Skybox profiler started, open the debug screen to see it", Formatting.GRAY);
+                break;
+            case "stop":
+                profiler.stop();
+                feedback("Skybox profiler stopped", Formatting.GRAY);
+                break;
+            case "reset":
+                profiler.reset();
+                feedback("Skybox profiler reset", Formatting.GRAY);
+                break;
+            case "dump":
+                try {
+                    Path path = profiler.dump();
+                    feedback("Skybox profile written to " + path.toAbsolutePath(), Formatting.GRAY);
+                } catch (IOException e) {
+                    FabricSkyBoxesClient.getLogger().error("Could not write the skybox profile", e);
+                    feedback("Could not write the skybox profile: " + e.getMessage(), Formatting.RED);
+                }
+                break;
+            default:
+                feedback("Unknown profiler action " + args[1], Formatting.RED);
+        }
+        return true;
+    }
+
+    private static void feedback(String message, Formatting formatting) {
+        MinecraftClient.getInstance().inGameHud.getChatHud().addMessage(new LiteralText(message).formatted(formatting));
+    }
+}
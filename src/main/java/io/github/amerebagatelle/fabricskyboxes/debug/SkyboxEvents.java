@@ -0,0 +1,94 @@
+package io.github.amerebagatelle.fabricskyboxes.debug;
+
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.debug.jfr.JfrSkyboxEvents;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * Java Flight Recorder events for the work done by the mod, so that it shows up next to garbage collection and the
+ * work of other mods in a recording. On runtimes without {@code jdk.jfr}, and while no recording is running,
+ * every method only reads a field and returns {@link Span#NONE}.
+ *
+ * <p>The JFR event classes are only loaded once {@code jdk.jfr} is known to be available.</p>
+ */
+public final class SkyboxEvents {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private SkyboxEvents() {
+    }
+
+    /**
+     * A step of applying reloaded skyboxes, on the render thread.
+     */
+    public static Span reloadPhase(String phase) {
+        return AVAILABLE ? JfrSkyboxEvents.reloadPhase(phase) : Span.NONE;
+    }
+
+    /**
+     * Reading and decoding a single skybox file. The detail should name where the skybox was decoded from.
+     */
+    public static Span skyboxDecode(Identifier resource) {
+        return AVAILABLE ? JfrSkyboxEvents.skyboxDecode(resource) : Span.NONE;
+    }
+
+    /**
+     * Decoding, stitching or uploading a skybox texture, named by the step. The count should be the size in bytes.
+     */
+    public static Span textureLoad(Identifier texture, String step) {
+        return AVAILABLE ? JfrSkyboxEvents.textureLoad(texture, step) : Span.NONE;
+    }
+
+    /**
+     * Evaluating the conditions and alpha of the skyboxes for a client tick. The count should be the number of skyboxes updated.
+     */
+    public static Span skyTick() {
+        return AVAILABLE ? JfrSkyboxEvents.skyTick() : Span.NONE;
+    }
+
+    /**
+     * Rendering the skyboxes of a frame. The count should be the number of skyboxes rendered.
+     */
+    public static Span skyFrame() {
+        return AVAILABLE ? JfrSkyboxEvents.skyFrame() : Span.NONE;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, SkyboxEvents.class.getClassLoader());
+            return JfrSkyboxEvents.register();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        } catch (RuntimeException e) {
+            FabricSkyBoxesClient.getLogger().debug("Flight recorder events are not available", e);
+            return false;
+        }
+    }
+
+    /**
+     * An event that started and is committed by {@link #end()}.
+     */
+    public interface Span {
+        Span NONE = new Span() {
+            @Override
+            public Span count(long count) {
+                return this;
+            }
+
+            @Override
+            public Span detail(String detail) {
+                return this;
+            }
+
+            @Override
+            public void end() {
+            }
+        };
+
+        Span count(long count);
+
+        Span detail(String detail);
+
+        void end();
+    }
+}
@@ -0,0 +1,347 @@
+package io.github.amerebagatelle.fabricskyboxes.debug;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.resource.TextureResidency;
+import io.github.amerebagatelle.fabricskyboxes.resource.TextureUploadQueue;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.RenderStateTracker;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+
+/**
+ * Measures how much each skybox costs: the CPU time of checking its conditions every tick and of rendering it every
+ * frame, and the draw calls and texture binds it issues. Frame averages are published every {@value #WINDOW_FRAMES}
+ * frames for the debug overlay, while the totals since the last reset can be written to a json file.
+ *
+ * <p>Disabled by default, as reading the clock around every skybox is not free. Enable it with
+ * {@code -Dfabricskyboxes.profiler=true} or the {@code /fabricskyboxes profiler start} command.</p>
+ */
+public class SkyboxProfiler {
+    private static final SkyboxProfiler INSTANCE = new SkyboxProfiler();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int WINDOW_FRAMES = 60;
+    private static final int OVERLAY_SKYBOXES = 5;
+
+    private final Map<AbstractSkybox, Entry> entries = new IdentityHashMap<>();
+    private final Entry frame = new Entry(null);
+    private ProfilingSkyRenderBackend backend;
+    private Entry current;
+    private long frameStart;
+    private long skyboxStart;
+    private long tickStart;
+    private int activeSkyboxes;
+    private long totalActiveSkyboxes;
+    private long windowActiveSkyboxes;
+    private float averageActiveSkyboxes;
+    private long totalHiddenSkyboxes;
+    private long windowHiddenSkyboxes;
+    private float averageHiddenSkyboxes;
+    private long totalHiddenPixels;
+    private long windowHiddenPixels;
+    private float averageHiddenPixels;
+    private long windowStateChanges;
+    private float averageStateChanges;
+    private int windowFrames;
+    private int windowTicks;
+
+    private SkyboxProfiler() {
+    }
+
+    public boolean isEnabled() {
+        return this.backend != null;
+    }
+
+    /**
+     * Starts profiling, counting the draw calls and texture binds by wrapping the current render backend.
+     */
+    public void start() {
+        if (!this.isEnabled()) {
+            this.reset();
+            SkyboxManager manager = SkyboxManager.getInstance();
+            this.backend = new ProfilingSkyRenderBackend(manager.getRenderBackend(), this);
+            manager.setRenderBackend(this.backend);
+        }
+    }
+
+    public void stop() {
+        if (this.isEnabled()) {
+            SkyboxManager manager = SkyboxManager.getInstance();
+            if (manager.getRenderBackend() == this.backend) {
+                manager.setRenderBackend(this.backend.getDelegate());
+            }
+            this.backend = null;
+            this.current = null;
+        }
+    }
+
+    /**
+     * Drops all measurements. Also called when the skyboxes are reloaded, so that unloaded skyboxes are not kept alive.
+     */
+    public void reset() {
+        this.entries.clear();
+        this.frame.reset();
+        this.totalActiveSkyboxes = 0;
+        this.windowActiveSkyboxes = 0;
+        this.averageActiveSkyboxes = 0;
+        this.totalHiddenSkyboxes = 0;
+        this.windowHiddenSkyboxes = 0;
+        this.averageHiddenSkyboxes = 0;
+        this.totalHiddenPixels = 0;
+        this.windowHiddenPixels = 0;
+        this.averageHiddenPixels = 0;
+        this.windowStateChanges = 0;
+        this.averageStateChanges = 0;
+        this.windowFrames = 0;
+        this.windowTicks = 0;
+    }
+
+    public void beginTick() {
+        this.windowTicks++;
+        this.frame.ticks++;
+    }
+
+    public void beginSkyboxTick() {
+        this.tickStart = System.nanoTime();
+    }
+
+    public void endSkyboxTick(AbstractSkybox skybox) {
+        long nanos = System.nanoTime() - this.tickStart;
+        Entry entry = this.getEntry(skybox);
+        entry.ticks++;
+        entry.tickNanos += nanos;
+        entry.windowTickNanos += nanos;
+        this.frame.tickNanos += nanos;
+        this.frame.windowTickNanos += nanos;
+    }
+
+    /**
+     * @param hiddenSkyboxes The number of active skyboxes that are skipped as they are beneath an opaque skybox.
+     */
+    public void beginFrame(int activeSkyboxes, int hiddenSkyboxes) {
+        this.activeSkyboxes = activeSkyboxes;
+        if (hiddenSkyboxes > 0) {
+            this.totalHiddenSkyboxes += hiddenSkyboxes;
+            this.windowHiddenSkyboxes += hiddenSkyboxes;
+            // every skipped skybox would have covered the whole sky, which is at most the whole framebuffer
+            MinecraftClient client = MinecraftClient.getInstance();
+            if (client != null) {
+                long pixels = (long) hiddenSkyboxes * client.getWindow().getFramebufferWidth() * client.getWindow().getFramebufferHeight();
+                this.totalHiddenPixels += pixels;
+                this.windowHiddenPixels += pixels;
+            }
+        }
+        this.frameStart = System.nanoTime();
+    }
+
+    public void beginSkybox(AbstractSkybox skybox) {
+        this.current = this.getEntry(skybox);
+        this.skyboxStart = System.nanoTime();
+    }
+
+    public void endSkybox() {
+        long nanos = System.nanoTime() - this.skyboxStart;
+        this.current.frames++;
+        this.current.renderNanos += nanos;
+        this.current.windowRenderNanos += nanos;
+        this.current = null;
+    }
+
+    public void endFrame(RenderStateTracker renderState) {
+        long nanos = System.nanoTime() - this.frameStart;
+        this.frame.frames++;
+        this.frame.renderNanos += nanos;
+        this.frame.windowRenderNanos += nanos;
+        this.totalActiveSkyboxes += this.activeSkyboxes;
+        this.windowActiveSkyboxes += this.activeSkyboxes;
+        this.windowStateChanges += renderState.getFrameChanges();
+        if (++this.windowFrames >= WINDOW_FRAMES) {
+            this.publish();
+        }
+    }
+
+    void onDraw() {
+        this.frame.draws++;
+        this.frame.windowDraws++;
+        if (this.current != null) {
+            this.current.draws++;
+            this.current.windowDraws++;
+        }
+    }
+
+    void onBind() {
+        this.frame.binds++;
+        this.frame.windowBinds++;
+        if (this.current != null) {
+            this.current.binds++;
+            this.current.windowBinds++;
+        }
+    }
+
+    private Entry getEntry(AbstractSkybox skybox) {
+        return this.entries.computeIfAbsent(skybox, Entry::new);
+    }
+
+    private void publish() {
+        this.frame.publish(this.windowFrames, this.windowTicks);
+        for (Entry entry : this.entries.values()) {
+            entry.publish(this.windowFrames, this.windowTicks);
+        }
+        this.averageActiveSkyboxes = (float) this.windowActiveSkyboxes / this.windowFrames;
+        this.averageStateChanges = (float) this.windowStateChanges / this.windowFrames;
+        this.averageHiddenSkyboxes = (float) this.windowHiddenSkyboxes / this.windowFrames;
+        this.averageHiddenPixels = (float) this.windowHiddenPixels / this.windowFrames;
+        this.windowActiveSkyboxes = 0;
+        this.windowHiddenSkyboxes = 0;
+        this.windowHiddenPixels = 0;
+        this.windowStateChanges = 0;
+        this.windowFrames = 0;
+        this.windowTicks = 0;
+    }
+
+    /**
+     * @return The lines of the debug overlay section, the skyboxes ordered by their render time.
+     */
+    public List<String> getOverlayLines() {
+        List<String> lines = Lists.newArrayList();
+        lines.add("");
+        lines.add(String.format("[FabricSkyBoxes] %.3f ms/frame, %.3f ms/tick, %.1f active", this.frame.averageRenderNanos / 1.0E6F, this.frame.averageTickNanos / 1.0E6F, this.averageActiveSkyboxes));
+        lines.add(String.format("%.1f draws, %.1f binds, %.1f state changes", this.frame.averageDraws, this.frame.averageBinds, this.averageStateChanges));
+        lines.add(String.format("Overdraw: %.1f skyboxes hidden, up to %.1f Mpx/frame not drawn", this.averageHiddenSkyboxes, this.averageHiddenPixels / 1.0E6F));
+        TextureUploadQueue uploadQueue = TextureUploadQueue.getInstance();
+        TextureResidency residency = TextureResidency.getInstance();
+        lines.add(String.format("Uploads: %d queued, Textures: %d/%d MiB", uploadQueue.getQueueDepth(), residency.getResidentBytes() >> 20, residency.getBudgetBytes() >> 20));
+        List<Entry> sorted = Lists.newArrayList(this.entries.values());
+        sorted.sort(Comparator.comparingDouble((Entry entry) -> entry.averageRenderNanos).reversed());
+        for (int i = 0; i < Math.min(OVERLAY_SKYBOXES, sorted.size()); i++) {
+            Entry entry = sorted.get(i);
+            lines.add(String.format("%s: %.3f ms, %.1f draws, %.1f binds", entry.getName(), entry.averageRenderNanos / 1.0E6F, entry.averageDraws, entry.averageBinds));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the totals since the last reset to a json file in the {@code debug} folder of the game directory.
+     *
+     * @return The path of the written file.
+     */
+    public Path dump() throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("frames", this.frame.frames);
+        root.addProperty("ticks", this.frame.ticks);
+        root.addProperty("renderNanos", this.frame.renderNanos);
+        root.addProperty("tickNanos", this.frame.tickNanos);
+        root.addProperty("draws", this.frame.draws);
+        root.addProperty("binds", this.frame.binds);
+        root.addProperty("averageActiveSkyboxes", this.frame.frames > 0 ? (double) this.totalActiveSkyboxes / this.frame.frames : 0.0D);
+        root.addProperty("averageHiddenSkyboxes", this.frame.frames > 0 ? (double) this.totalHiddenSkyboxes / this.frame.frames : 0.0D);
+        root.addProperty("hiddenPixels", this.totalHiddenPixels);
+        root.addProperty("loadedSkyboxes", SkyboxManager.getInstance().getSkyboxCount());
+        JsonArray skyboxes = new JsonArray();
+        List<Entry> sorted = Lists.newArrayList(this.entries.values());
+        sorted.sort(Comparator.comparingInt(entry -> entry.skybox.layerIndex));
+        for (Entry entry : sorted) {
+            JsonObject object = new JsonObject();
+            object.addProperty("name", entry.getName());
+            object.addProperty("type", entry.skybox.getType());
+            object.addProperty("layer", entry.skybox.layerIndex);
+            object.addProperty("priority", entry.skybox.getPriority());
+            object.addProperty("framesRendered", entry.frames);
+            object.addProperty("renderNanos", entry.renderNanos);
+            object.addProperty("averageRenderNanos", entry.frames > 0 ? entry.renderNanos / entry.frames : 0L);
+            object.addProperty("ticks", entry.ticks);
+            object.addProperty("tickNanos", entry.tickNanos);
+            object.addProperty("averageTickNanos", entry.ticks > 0 ? entry.tickNanos / entry.ticks : 0L);
+            object.addProperty("draws", entry.draws);
+            object.addProperty("binds", entry.binds);
+            skyboxes.add(object);
+        }
+        root.add("skyboxes", skyboxes);
+
+        Path directory = FabricLoader.getInstance().getGameDir().resolve("debug");
+        Files.createDirectories(directory);
+        Path path = directory.resolve("fabricskyboxes-profile-" + new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date()) + ".json");
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            GSON.toJson(root, writer);
+        }
+        return path;
+    }
+
+    public static SkyboxProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    private static class Entry {
+        private final AbstractSkybox skybox;
+        private long frames;
+        private long ticks;
+        private long renderNanos;
+        private long tickNanos;
+        private long draws;
+        private long binds;
+        private long windowRenderNanos;
+        private long windowTickNanos;
+        private long windowDraws;
+        private long windowBinds;
+        private float averageRenderNanos;
+        private float averageTickNanos;
+        private float averageDraws;
+        private float averageBinds;
+
+        private Entry(AbstractSkybox skybox) {
+            this.skybox = skybox;
+        }
+
+        private String getName() {
+            if (this.skybox.resourceId != null) {
+                return this.skybox.resourceId.toString();
+            }
+            return this.skybox.getType() + "#" + this.skybox.layerIndex;
+        }
+
+        private void publish(int windowFrames, int windowTicks) {
+            this.averageRenderNanos = (float) this.windowRenderNanos / windowFrames;
+            this.averageTickNanos = windowTicks > 0 ? (float) this.windowTickNanos / windowTicks : 0f;
+            this.averageDraws = (float) this.windowDraws / windowFrames;
+            this.averageBinds = (float) this.windowBinds / windowFrames;
+            this.windowRenderNanos = 0;
+            this.windowTickNanos = 0;
+            this.windowDraws = 0;
+            this.windowBinds = 0;
+        }
+
+        private void reset() {
+            this.frames = 0;
+            this.ticks = 0;
+            this.renderNanos = 0;
+            this.tickNanos = 0;
+            this.draws = 0;
+            this.binds = 0;
+            this.windowRenderNanos = 0;
+            this.windowTickNanos = 0;
+            this.windowDraws = 0;
+            this.windowBinds = 0;
+            this.averageRenderNanos = 0f;
+            this.averageTickNanos = 0f;
+            this.averageDraws = 0f;
+            this.averageBinds = 0f;
+        }
+    }
+}
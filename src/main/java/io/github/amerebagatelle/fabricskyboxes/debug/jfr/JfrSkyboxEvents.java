@@ -0,0 +1,86 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * Creates the flight recorder events for {@link SkyboxEvents}. Only loaded when {@code jdk.jfr} is available.
+ * An event object is only created while a recording has the event type enabled.
+ */
+public final class JfrSkyboxEvents {
+    private static EventType reloadPhaseType;
+    private static EventType skyboxDecodeType;
+    private static EventType textureLoadType;
+    private static EventType skyTickType;
+    private static EventType skyFrameType;
+
+    private JfrSkyboxEvents() {
+    }
+
+    /**
+     * @return Whether the events could be registered with the flight recorder.
+     */
+    public static boolean register() {
+        if (!FlightRecorder.isAvailable()) {
+            return false;
+        }
+        reloadPhaseType = EventType.getEventType(ReloadPhaseEvent.class);
+        skyboxDecodeType = EventType.getEventType(SkyboxDecodeEvent.class);
+        textureLoadType = EventType.getEventType(TextureLoadEvent.class);
+        skyTickType = EventType.getEventType(SkyTickEvent.class);
+        skyFrameType = EventType.getEventType(SkyFrameEvent.class);
+        return true;
+    }
+
+    public static SkyboxEvents.Span reloadPhase(String phase) {
+        if (!reloadPhaseType.isEnabled()) {
+            return SkyboxEvents.Span.NONE;
+        }
+        ReloadPhaseEvent event = new ReloadPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public static SkyboxEvents.Span skyboxDecode(Identifier resource) {
+        if (!skyboxDecodeType.isEnabled()) {
+            return SkyboxEvents.Span.NONE;
+        }
+        SkyboxDecodeEvent event = new SkyboxDecodeEvent();
+        event.resource = resource.toString();
+        event.begin();
+        return event;
+    }
+
+    public static SkyboxEvents.Span textureLoad(Identifier texture, String step) {
+        if (!textureLoadType.isEnabled()) {
+            return SkyboxEvents.Span.NONE;
+        }
+        TextureLoadEvent event = new TextureLoadEvent();
+        event.texture = texture.toString();
+        event.step = step;
+        event.begin();
+        return event;
+    }
+
+    public static SkyboxEvents.Span skyTick() {
+        if (!skyTickType.isEnabled()) {
+            return SkyboxEvents.Span.NONE;
+        }
+        SkyTickEvent event = new SkyTickEvent();
+        event.begin();
+        return event;
+    }
+
+    public static SkyboxEvents.Span skyFrame() {
+        if (!skyFrameType.isEnabled()) {
+            return SkyboxEvents.Span.NONE;
+        }
+        SkyFrameEvent event = new SkyFrameEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fabricskyboxes.ReloadPhase")
+@Label("Skybox Reload Phase")
+@Category({"FabricSkyBoxes"})
+@Description("A step of applying reloaded skyboxes")
+class ReloadPhaseEvent extends Event implements SkyboxEvents.Span {
+    @Label("Phase")
+    String phase;
+    @Label("Skyboxes")
+    long skyboxes;
+
+    @Override
+    public SkyboxEvents.Span count(long count) {
+        this.skyboxes = count;
+        return this;
+    }
+
+    @Override
+    public SkyboxEvents.Span detail(String detail) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.commit();
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fabricskyboxes.SkyFrame")
+@Label("Sky Frame")
+@Category({"FabricSkyBoxes"})
+@Description("Rendering the skyboxes of a frame")
+class SkyFrameEvent extends Event implements SkyboxEvents.Span {
+    @Label("Rendered Skyboxes")
+    long renderedSkyboxes;
+
+    @Override
+    public SkyboxEvents.Span count(long count) {
+        this.renderedSkyboxes = count;
+        return this;
+    }
+
+    @Override
+    public SkyboxEvents.Span detail(String detail) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.commit();
+    }
+}
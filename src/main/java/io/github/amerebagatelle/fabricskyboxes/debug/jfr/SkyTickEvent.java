@@ -0,0 +1,33 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fabricskyboxes.SkyTick")
+@Label("Sky Tick")
+@Category({"FabricSkyBoxes"})
+@Description("Evaluating the conditions and alpha of the skyboxes for a client tick")
+class SkyTickEvent extends Event implements SkyboxEvents.Span {
+    @Label("Updated Skyboxes")
+    long updatedSkyboxes;
+
+    @Override
+    public SkyboxEvents.Span count(long count) {
+        this.updatedSkyboxes = count;
+        return this;
+    }
+
+    @Override
+    public SkyboxEvents.Span detail(String detail) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.commit();
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fabricskyboxes.SkyboxDecode")
+@Label("Skybox Decode")
+@Category({"FabricSkyBoxes"})
+@Description("Reading and decoding a skybox file")
+class SkyboxDecodeEvent extends Event implements SkyboxEvents.Span {
+    @Label("Resource")
+    String resource;
+    @Label("Source")
+    @Description("Whether the skybox was taken from the cache or decoded from json")
+    String source;
+
+    @Override
+    public SkyboxEvents.Span count(long count) {
+        return this;
+    }
+
+    @Override
+    public SkyboxEvents.Span detail(String detail) {
+        this.source = detail;
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.commit();
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.amerebagatelle.fabricskyboxes.debug.jfr;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("fabricskyboxes.TextureLoad")
+@Label("Skybox Texture Load")
+@Category({"FabricSkyBoxes"})
+@Description("Decoding, stitching or uploading a skybox texture")
+class TextureLoadEvent extends Event implements SkyboxEvents.Span {
+    @Label("Texture")
+    String texture;
+    @Label("Step")
+    String step;
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    @Override
+    public SkyboxEvents.Span count(long count) {
+        this.size = count;
+        return this;
+    }
+
+    @Override
+    public SkyboxEvents.Span detail(String detail) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+        this.commit();
+    }
+}
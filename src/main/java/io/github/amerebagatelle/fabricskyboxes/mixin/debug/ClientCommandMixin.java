@@ -0,0 +1,21 @@
+package io.github.amerebagatelle.fabricskyboxes.mixin.debug;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxCommand;
+import net.minecraft.client.network.ClientPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPlayerEntity.class)
+public class ClientCommandMixin {
+    /**
+     * Handles the client side {@code /fabricskyboxes} command instead of sending it to the server.
+     */
+    @Inject(method = "sendChatMessage", at = @At("HEAD"), cancellable = true)
+    private void handleSkyboxCommand(String message, CallbackInfo ci) {
+        if (SkyboxCommand.execute(message)) {
+            ci.cancel();
+        }
+    }
+}
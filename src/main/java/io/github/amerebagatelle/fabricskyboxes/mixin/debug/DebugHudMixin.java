@@ -0,0 +1,23 @@
+package io.github.amerebagatelle.fabricskyboxes.mixin.debug;
+
+import java.util.List;
+
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxProfiler;
+import net.minecraft.client.gui.hud.DebugHud;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(DebugHud.class)
+public class DebugHudMixin {
+    /**
+     * Adds the measurements of the skybox profiler to the left side of the debug screen while it is running.
+     */
+    @Inject(method = "getLeftText", at = @At("RETURN"))
+    private void addSkyboxProfile(CallbackInfoReturnable<List<String>> cir) {
+        if (SkyboxProfiler.getInstance().isEnabled()) {
+            cir.getReturnValue().addAll(SkyboxProfiler.getInstance().getOverlayLines());
+        }
+    }
+}
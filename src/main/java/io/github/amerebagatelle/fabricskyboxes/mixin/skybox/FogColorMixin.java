@@ -31,7 +31,6 @@ public class FogColorMixin {
             red = SkyboxManager.fogRed;
             blue = SkyboxManager.fogBlue;
             green = SkyboxManager.fogGreen;
-            SkyboxManager.shouldChangeFog = false;
         }
     }
 }
@@ -1,8 +1,13 @@
 package io.github.amerebagatelle.fabricskyboxes.mixin.skybox;
 
 import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.resource.TextureUploadQueue;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.LightmapTextureManager;
 import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.Matrix4f;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -10,12 +15,27 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 @Mixin(WorldRenderer.class)
 public class SkyboxRenderMixin {
+    /**
+     * Captures the projection of the frame, so that skyboxes can skip the parts of the sky that are out of view.
+     */
+    @Inject(method = "render", at = @At("HEAD"))
+    private void captureProjection(MatrixStack matrices, float tickDelta, long limitTime, boolean renderBlockOutline, Camera camera, GameRenderer gameRenderer, LightmapTextureManager lightmapTextureManager, Matrix4f projection, CallbackInfo ci) {
+        SkyboxManager.getInstance().getFrustum().setProjection(projection);
+    }
+
+    @Inject(method = "render", at = @At("RETURN"))
+    private void releaseProjection(MatrixStack matrices, float tickDelta, long limitTime, boolean renderBlockOutline, Camera camera, GameRenderer gameRenderer, LightmapTextureManager lightmapTextureManager, Matrix4f projection, CallbackInfo ci) {
+        SkyboxManager.getInstance().getFrustum().setProjection(null);
+    }
+
     /**
      * Contains the logic for when skyboxes should be rendered.
      */
     @Inject(method = "renderSky", at = @At("HEAD"), cancellable = true)
     private void renderCustomSkyboxes(MatrixStack matrices, float tickDelta, CallbackInfo ci) {
-        float total = SkyboxManager.getInstance().getTotalAlpha();
+        TextureUploadQueue.getInstance().uploadFrame();
+        // an opaque skybox is fully faded in, so the vanilla sky it hides is always cancelled here
+        float total = SkyboxManager.getInstance().getTotalAlpha(tickDelta);
         SkyboxManager.getInstance().renderSkyboxes((WorldRendererAccess) this, matrices, tickDelta);
         if (total > 0.05) {
             ci.cancel();
@@ -0,0 +1,19 @@
+package io.github.amerebagatelle.fabricskyboxes.mixin.skybox;
+
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import net.minecraft.client.render.WorldRenderer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(WorldRenderer.class)
+public class SkyboxTickMixin {
+    /**
+     * Updates the skyboxes once per client tick, so that rendering only has to interpolate.
+     */
+    @Inject(method = "tick", at = @At("RETURN"))
+    private void tickSkyboxes(CallbackInfo ci) {
+        SkyboxManager.getInstance().tick();
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.amerebagatelle.fabricskyboxes.render;
+
+import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.DecorationGeometry;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SunriseFan;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SkyboxCube;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * Renders skyboxes with {@link RenderSystem}, the {@code TextureManager} and static vertex buffers.
+ */
+public class GlSkyRenderBackend implements SkyRenderBackend {
+    @Override
+    public void bindTexture(Identifier texture) {
+        MinecraftClient.getInstance().getTextureManager().bindTexture(texture);
+    }
+
+    @Override
+    public void color(float red, float green, float blue, float alpha) {
+        RenderSystem.color4f(red, green, blue, alpha);
+    }
+
+    @Override
+    public void draw(SkyMesh mesh, int variant, Matrix4f matrix) {
+        switch (mesh) {
+            case CUBE_FACE:
+                SkyboxCube.drawFace(variant, matrix);
+                break;
+            case CUBE_ATLAS:
+                SkyboxCube.drawAtlas(matrix);
+                break;
+            case SUN:
+                DecorationGeometry.drawSun(matrix);
+                break;
+            case MOON:
+                DecorationGeometry.drawMoon(variant, matrix);
+                break;
+            case SUNRISE_FAN:
+                SunriseFan.drawFan(matrix);
+                break;
+            default:
+                WorldRendererAccess worldRendererAccess = (WorldRendererAccess) MinecraftClient.getInstance().worldRenderer;
+                VertexBuffer buffer = mesh == SkyMesh.STARS ? worldRendererAccess.getStarsBuffer() : mesh == SkyMesh.LIGHT_SKY ? worldRendererAccess.getLightSkyBuffer() : worldRendererAccess.getDarkSkyBuffer();
+                buffer.bind();
+                worldRendererAccess.getSkyVertexFormat().startDrawing(0L);
+                buffer.draw(matrix, 7);
+                VertexBuffer.unbind();
+                worldRendererAccess.getSkyVertexFormat().endDrawing();
+        }
+    }
+
+    @Override
+    public void setCapability(Capability capability, boolean enabled) {
+        switch (capability) {
+            case ALPHA_TEST:
+                if (enabled) RenderSystem.enableAlphaTest();
+                else RenderSystem.disableAlphaTest();
+                break;
+            case DEPTH_MASK:
+                RenderSystem.depthMask(enabled);
+                break;
+            case BLEND:
+                if (enabled) RenderSystem.enableBlend();
+                else RenderSystem.disableBlend();
+                break;
+            case TEXTURE:
+                if (enabled) RenderSystem.enableTexture();
+                else RenderSystem.disableTexture();
+                break;
+            case FOG:
+                if (enabled) RenderSystem.enableFog();
+                else RenderSystem.disableFog();
+                break;
+        }
+    }
+
+    @Override
+    public void blendFunc(GlStateManager.SrcFactor srcFactor, GlStateManager.DstFactor dstFactor, GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha) {
+        RenderSystem.blendFuncSeparate(srcFactor, dstFactor, srcAlpha, dstAlpha);
+    }
+
+    @Override
+    public void setTextureTransform(float scaleU, float scaleV, float offsetU, float offsetV) {
+        // GL_TEXTURE, then back to GL_MODELVIEW
+        RenderSystem.matrixMode(5890);
+        RenderSystem.pushMatrix();
+        RenderSystem.loadIdentity();
+        RenderSystem.translatef(offsetU, offsetV, 0.0F);
+        RenderSystem.scalef(scaleU, scaleV, 1.0F);
+        RenderSystem.matrixMode(5888);
+    }
+
+    @Override
+    public void resetTextureTransform() {
+        RenderSystem.matrixMode(5890);
+        RenderSystem.popMatrix();
+        RenderSystem.matrixMode(5888);
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.amerebagatelle.fabricskyboxes.render;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.mojang.blaze3d.platform.GlStateManager;
+
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Matrix4f;
+
+import java.util.List;
+
+/**
+ * Records the commands skyboxes render with instead of carrying them out, so that draw calls, texture binds
+ * and the time spent per frame can be measured without a GL context.
+ */
+public class RecordingSkyRenderBackend implements SkyRenderBackend {
+    private final List<Command> commands = Lists.newArrayList();
+    private boolean recordCommands = true;
+    private int frames;
+    private int draws;
+    private int binds;
+    private int stateChanges;
+    private long frameStart;
+    private long lastFrameNanos;
+    private long totalFrameNanos;
+
+    @Override
+    public void beginFrame() {
+        this.frameStart = System.nanoTime();
+    }
+
+    @Override
+    public void endFrame() {
+        this.lastFrameNanos = System.nanoTime() - this.frameStart;
+        this.totalFrameNanos += this.lastFrameNanos;
+        this.frames++;
+    }
+
+    @Override
+    public void bindTexture(Identifier texture) {
+        this.binds++;
+        this.record(Command.Type.BIND_TEXTURE, texture);
+    }
+
+    @Override
+    public void color(float red, float green, float blue, float alpha) {
+        this.stateChanges++;
+        if (this.recordCommands) {
+            this.record(Command.Type.COLOR, new float[]{red, green, blue, alpha});
+        }
+    }
+
+    @Override
+    public void draw(SkyMesh mesh, int variant, Matrix4f matrix) {
+        this.draws++;
+        this.record(Command.Type.DRAW, mesh);
+    }
+
+    @Override
+    public void setCapability(Capability capability, boolean enabled) {
+        this.stateChanges++;
+        this.record(enabled ? Command.Type.ENABLE : Command.Type.DISABLE, capability);
+    }
+
+    @Override
+    public void blendFunc(GlStateManager.SrcFactor srcFactor, GlStateManager.DstFactor dstFactor, GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha) {
+        this.stateChanges++;
+        if (this.recordCommands) {
+            this.record(Command.Type.BLEND_FUNC, new Object[]{srcFactor, dstFactor, srcAlpha, dstAlpha});
+        }
+    }
+
+    @Override
+    public void setTextureTransform(float scaleU, float scaleV, float offsetU, float offsetV) {
+        this.stateChanges++;
+        if (this.recordCommands) {
+            this.record(Command.Type.TEXTURE_TRANSFORM, new float[]{scaleU, scaleV, offsetU, offsetV});
+        }
+    }
+
+    @Override
+    public void resetTextureTransform() {
+        this.stateChanges++;
+        this.record(Command.Type.TEXTURE_TRANSFORM, null);
+    }
+
+    private void record(Command.Type type, Object argument) {
+        if (this.recordCommands) {
+            this.commands.add(new Command(type, argument));
+        }
+    }
+
+    /**
+     * Only counting the commands keeps memory use flat when measuring many frames, and nothing is allocated.
+     */
+    public void setRecordCommands(boolean recordCommands) {
+        this.recordCommands = recordCommands;
+    }
+
+    public void reset() {
+        this.commands.clear();
+        this.frames = 0;
+        this.draws = 0;
+        this.binds = 0;
+        this.stateChanges = 0;
+        this.lastFrameNanos = 0L;
+        this.totalFrameNanos = 0L;
+    }
+
+    public List<Command> getCommands() {
+        return ImmutableList.copyOf(this.commands);
+    }
+
+    public int getFrames() {
+        return this.frames;
+    }
+
+    public int getDraws() {
+        return this.draws;
+    }
+
+    public int getBinds() {
+        return this.binds;
+    }
+
+    public int getStateChanges() {
+        return this.stateChanges;
+    }
+
+    public long getLastFrameNanos() {
+        return this.lastFrameNanos;
+    }
+
+    public long getTotalFrameNanos() {
+        return this.totalFrameNanos;
+    }
+
+    public static class Command {
+        private final Type type;
+        private final Object argument;
+
+        private Command(Type type, Object argument) {
+            this.type = type;
+            this.argument = argument;
+        }
+
+        public Type getType() {
+            return this.type;
+        }
+
+        /**
+         * @return The texture, mesh, capability or values of the command, depending on its type.
+         */
+        public Object getArgument() {
+            return this.argument;
+        }
+
+        public enum Type {
+            BIND_TEXTURE,
+            COLOR,
+            DRAW,
+            ENABLE,
+            DISABLE,
+            BLEND_FUNC,
+            TEXTURE_TRANSFORM
+        }
+    }
+}
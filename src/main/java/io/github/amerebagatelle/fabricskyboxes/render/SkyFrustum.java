@@ -0,0 +1,70 @@
+package io.github.amerebagatelle.fabricskyboxes.render;
+
+import net.minecraft.client.util.math.Vector4f;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * The projection of the frame being rendered, used to skip parts of the sky that are outside of the view.
+ * The projection is captured when the world starts rendering and dropped when it is done, so the sky rendered
+ * outside of the world renderer, where the projection is not known, is never culled.
+ *
+ * <p>Points are tested in clip space against the left, right, bottom, top and near planes. The far plane is
+ * left out, as the sky is drawn beyond it on short render distances.</p>
+ */
+public class SkyFrustum {
+    public static final int INSIDE = 0;
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int BOTTOM = 4;
+    private static final int TOP = 8;
+    private static final int NEAR = 16;
+
+    private final Vector4f point = new Vector4f();
+    private final Matrix4f projection = new Matrix4f();
+    private boolean known;
+
+    /**
+     * @param projection The projection matrix of the frame, or null once the frame is done.
+     */
+    public void setProjection(Matrix4f projection) {
+        this.known = projection != null;
+        if (this.known) {
+            // copied in place, as this is called every frame
+            this.projection.loadIdentity();
+            this.projection.multiply(projection);
+        }
+    }
+
+    public boolean isKnown() {
+        return this.known;
+    }
+
+    /**
+     * Finds the planes a point lies outside of. A shape whose points all share a plane they lie outside of
+     * cannot be seen. Only valid while the projection {@link #isKnown() is known}.
+     *
+     * @param model The model view matrix the point is drawn with.
+     * @return A bit for every plane the point lies outside of, or {@link #INSIDE}.
+     */
+    public int getOutcode(Matrix4f model, float x, float y, float z) {
+        this.point.set(x, y, z, 1.0F);
+        this.point.transform(model);
+        this.point.transform(this.projection);
+        float w = this.point.getW();
+        int outcode = INSIDE;
+        if (this.point.getX() < -w) {
+            outcode |= LEFT;
+        } else if (this.point.getX() > w) {
+            outcode |= RIGHT;
+        }
+        if (this.point.getY() < -w) {
+            outcode |= BOTTOM;
+        } else if (this.point.getY() > w) {
+            outcode |= TOP;
+        }
+        if (this.point.getZ() < -w) {
+            outcode |= NEAR;
+        }
+        return outcode;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.amerebagatelle.fabricskyboxes.render;
+
+/**
+ * The static geometry skyboxes draw through a {@link SkyRenderBackend}.
+ */
+public enum SkyMesh {
+    /**
+     * A face of the square skybox cube, the variant is the face index of {@code SkyboxCube}.
+     */
+    CUBE_FACE,
+    /**
+     * The whole square skybox cube, mapped onto a stitched atlas.
+     */
+    CUBE_ATLAS,
+    SUN,
+    /**
+     * The moon, the variant is the moon phase.
+     */
+    MOON,
+    SUNRISE_FAN,
+    STARS,
+    /**
+     * The vanilla sky plane above the player.
+     */
+    LIGHT_SKY,
+    /**
+     * The vanilla sky plane below the player.
+     */
+    DARK_SKY
+}
@@ -0,0 +1,57 @@
+package io.github.amerebagatelle.fabricskyboxes.render;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * The operations skyboxes render with. In game these are carried out by {@link GlSkyRenderBackend},
+ * while {@link RecordingSkyRenderBackend} only records them, so that rendering can be measured without a GL context.
+ *
+ * <p>Skyboxes should change the capabilities through the {@code RenderStateTracker} of the
+ * {@code SkyboxManager}, which only passes actual changes on to the backend.</p>
+ */
+public interface SkyRenderBackend {
+    /**
+     * Called before the skyboxes of a frame are rendered.
+     */
+    default void beginFrame() {
+    }
+
+    /**
+     * Called after the skyboxes of a frame are rendered.
+     */
+    default void endFrame() {
+    }
+
+    void bindTexture(Identifier texture);
+
+    void color(float red, float green, float blue, float alpha);
+
+    /**
+     * Draws a mesh with the currently bound texture and color.
+     *
+     * @param variant Selects the face or phase of meshes that have several, ignored otherwise.
+     */
+    void draw(SkyMesh mesh, int variant, Matrix4f matrix);
+
+    void setCapability(Capability capability, boolean enabled);
+
+    void blendFunc(GlStateManager.SrcFactor srcFactor, GlStateManager.DstFactor dstFactor, GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha);
+
+    /**
+     * Scales and then offsets the texture coordinates of the following draws, until {@link #resetTextureTransform()}.
+     */
+    void setTextureTransform(float scaleU, float scaleV, float offsetU, float offsetV);
+
+    void resetTextureTransform();
+
+    enum Capability {
+        ALPHA_TEST,
+        DEPTH_MASK,
+        BLEND,
+        TEXTURE,
+        FOG
+    }
+}
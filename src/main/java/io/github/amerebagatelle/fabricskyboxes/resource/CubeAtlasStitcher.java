@@ -0,0 +1,97 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SkyboxCube;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Textures;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.NativeImageBackedTexture;
+import net.minecraft.client.texture.TextureManager;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stitches the six faces of a square skybox into a single texture, so that the skybox can
+ * be drawn with one texture bind and one draw call. The atlas is laid out three faces wide and
+ * two faces high, in the face order of {@link SkyboxCube}.
+ */
+public class CubeAtlasStitcher {
+    private static final List<Identifier> ATLASES = Lists.newArrayList();
+
+    /**
+     * Reads the face textures and stitches them together. Can be called off-thread.
+     *
+     * @return The stitched image, or null if the faces could not be read or are not all the same size.
+     */
+    public static NativeImage stitch(ResourceManager manager, Textures textures) {
+        NativeImage[] faces = new NativeImage[SkyboxCube.FACES];
+        // named after the first face, as the atlas only gets an identifier once it is uploaded
+        SkyboxEvents.Span span = SkyboxEvents.textureLoad(textures.getFace(0), "stitch");
+        try {
+            for (int i = 0; i < SkyboxCube.FACES; i++) {
+                try (Resource resource = manager.getResource(textures.getFace(i))) {
+                    faces[i] = NativeImage.read(resource.getInputStream());
+                }
+            }
+            int width = faces[0].getWidth();
+            int height = faces[0].getHeight();
+            for (NativeImage face : faces) {
+                if (face.getWidth() != width || face.getHeight() != height) {
+                    throw new IOException("Faces of a stitched skybox must all be the same size");
+                }
+            }
+            NativeImage atlas = new NativeImage(width * SkyboxCube.ATLAS_COLUMNS, height * SkyboxCube.ATLAS_ROWS, true);
+            for (int i = 0; i < SkyboxCube.FACES; i++) {
+                int offsetX = (i % SkyboxCube.ATLAS_COLUMNS) * width;
+                int offsetY = (i / SkyboxCube.ATLAS_COLUMNS) * height;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        atlas.setPixelColor(offsetX + x, offsetY + y, faces[i].getPixelColor(x, y));
+                    }
+                }
+            }
+            span.count((long) atlas.getWidth() * atlas.getHeight() * 4);
+            return atlas;
+        } catch (IOException | RuntimeException e) {
+            FabricSkyBoxesClient.getLogger().warn("Could not stitch skybox textures, falling back to separate textures", e);
+            return null;
+        } finally {
+            span.end();
+            for (NativeImage face : faces) {
+                if (face != null) {
+                    face.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Uploads stitched atlases, replacing the ones from the previous reload. Must be called on the render thread.
+     *
+     * @return The texture identifier of each atlas.
+     */
+    public static Map<Textures, Identifier> upload(Map<Textures, NativeImage> images) {
+        TextureManager textureManager = MinecraftClient.getInstance().getTextureManager();
+        for (Identifier id : ATLASES) {
+            textureManager.destroyTexture(id);
+        }
+        ATLASES.clear();
+
+        Map<Textures, Identifier> atlases = Maps.newHashMap();
+        for (Map.Entry<Textures, NativeImage> entry : images.entrySet()) {
+            Identifier id = new Identifier(FabricSkyBoxesClient.MODID, "cube_atlas/" + ATLASES.size());
+            textureManager.registerTexture(id, new NativeImageBackedTexture(entry.getValue()));
+            ATLASES.add(id);
+            atlases.put(entry.getKey(), id);
+        }
+        return atlases;
+    }
+}
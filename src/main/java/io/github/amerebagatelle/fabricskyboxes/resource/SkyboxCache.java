@@ -0,0 +1,182 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SkyboxType;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.Identifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A binary cache of decoded skyboxes, keyed by the hash of the json they were decoded from.
+ *
+ * <p>Skyboxes read from the cache skip json parsing and codec decoding. The whole cache is
+ * discarded when the mod version changes, and entries whose json changed or no longer exists are
+ * dropped the next time the cache is written. Only skyboxes that report {@link AbstractSkybox#isCacheable()}
+ * are stored.</p>
+ */
+public class SkyboxCache {
+    private static final int MAGIC = 0x46534243;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<Identifier, Entry> entries;
+    private final Map<Identifier, Entry> usedEntries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private SkyboxCache(Map<Identifier, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the cache from disk. Returns an empty cache if there is none or it cannot be used.
+     */
+    public static SkyboxCache read() {
+        Map<Identifier, Entry> entries = new ConcurrentHashMap<>();
+        Path path = getPath();
+        if (Files.exists(path)) {
+            try (InputStream stream = Files.newInputStream(path); DataInputStream input = new DataInputStream(stream)) {
+                if (input.readInt() == MAGIC && input.readInt() == FORMAT_VERSION && input.readUTF().equals(getModVersion())) {
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        Identifier id = new Identifier(input.readUTF());
+                        byte[] hash = new byte[input.readUnsignedShort()];
+                        input.readFully(hash);
+                        byte[] data = new byte[input.readInt()];
+                        input.readFully(data);
+                        entries.put(id, new Entry(hash, data));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                FabricSkyBoxesClient.getLogger().warn("Could not read the skybox cache, skyboxes will be decoded from json", e);
+                entries.clear();
+            }
+        }
+        return new SkyboxCache(entries);
+    }
+
+    /**
+     * @return The skybox cached for the given json, or null if it is not cached.
+     */
+    public AbstractSkybox get(Identifier id, byte[] hash) {
+        Entry entry = this.entries.get(id);
+        if (entry == null || !Arrays.equals(entry.hash, hash)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(entry.data))) {
+            SkyboxType<?> skyboxType = SkyboxManager.getSkyboxType(input.readUTF());
+            if (skyboxType != null) {
+                AbstractSkybox skybox = skyboxType.create();
+                skybox.readCache(input);
+                this.usedEntries.put(id, entry);
+                return skybox;
+            }
+        } catch (IOException | RuntimeException e) {
+            FabricSkyBoxesClient.getLogger().debug("Could not read cached skybox " + id, e);
+        }
+        return null;
+    }
+
+    /**
+     * Stores a skybox that was decoded from json.
+     */
+    public void put(Identifier id, byte[] hash, AbstractSkybox skybox) {
+        if (!skybox.isCacheable()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeUTF(skybox.getType());
+            skybox.writeCache(output);
+            output.flush();
+            this.usedEntries.put(id, new Entry(hash, bytes.toByteArray()));
+            this.dirty = true;
+        } catch (IOException | RuntimeException e) {
+            FabricSkyBoxesClient.getLogger().debug("Could not cache skybox " + id, e);
+        }
+    }
+
+    /**
+     * Writes the entries used during this reload to disk, if anything changed.
+     */
+    public void write() {
+        if (!this.dirty && this.usedEntries.size() == this.entries.size()) {
+            return;
+        }
+        Path path = getPath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream stream = Files.newOutputStream(tempPath); DataOutputStream output = new DataOutputStream(stream)) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(getModVersion());
+                output.writeInt(this.usedEntries.size());
+                for (Map.Entry<Identifier, Entry> entry : this.usedEntries.entrySet()) {
+                    output.writeUTF(entry.getKey().toString());
+                    output.writeShort(entry.getValue().hash.length);
+                    output.write(entry.getValue().hash);
+                    output.writeInt(entry.getValue().data.length);
+                    output.write(entry.getValue().data);
+                }
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            FabricSkyBoxesClient.getLogger().warn("Could not write the skybox cache", e);
+        }
+    }
+
+    public static byte[] hash(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public static void writeIdentifier(DataOutput output, Identifier id) throws IOException {
+        output.writeUTF(id.toString());
+    }
+
+    public static Identifier readIdentifier(DataInput input) throws IOException {
+        return new Identifier(input.readUTF());
+    }
+
+    private static Path getPath() {
+        return FabricLoader.getInstance().getGameDir().resolve(".cache").resolve(FabricSkyBoxesClient.MODID).resolve("skyboxes.bin");
+    }
+
+    private static String getModVersion() {
+        return FabricLoader.getInstance().getModContainer(FabricSkyBoxesClient.MODID)
+                .map(container -> container.getMetadata().getVersion().getFriendlyString())
+                .orElse("unknown");
+    }
+
+    private static class Entry {
+        private final byte[] hash;
+        private final byte[] data;
+
+        private Entry(byte[] hash, byte[] data) {
+            this.hash = hash;
+            this.data = data;
+        }
+    }
+}
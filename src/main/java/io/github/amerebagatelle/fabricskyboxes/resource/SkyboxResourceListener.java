@@ -1,47 +1,168 @@
 package io.github.amerebagatelle.fabricskyboxes.resource;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.JsonOps;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
 import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.SkyboxType;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.SquareTexturedSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.TexturedSkybox;
 import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
-import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import io.github.amerebagatelle.fabricskyboxes.util.object.FadeTable;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Textures;
+import net.fabricmc.fabric.api.resource.SimpleResourceReloadListener;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.resource.Resource;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.profiler.Profiler;
+import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.function.Supplier;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
-public class SkyboxResourceListener implements SimpleSynchronousResourceReloadListener {
+/**
+ * Loads skyboxes from the {@code sky} folder of resource packs.
+ * Files are read and decoded in parallel on the reload executor, and the decoded
+ * skyboxes are only handed to the {@link SkyboxManager} on the apply executor. Files that did not
+ * change since the last reload are read from the {@link SkyboxCache} instead. The faces of stitched square
+ * skyboxes are combined into one atlas per distinct set of textures by the {@link CubeAtlasStitcher}, and all
+ * other textures are decoded ahead of the first frame by the {@link SkyboxTextureLoader}.
+ */
+public class SkyboxResourceListener implements SimpleResourceReloadListener<SkyboxResourceListener.LoadedSkyboxes> {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().setLenient().create();
-    private static final JsonObjectWrapper objectWrapper = new JsonObjectWrapper();
 
     @Override
-    public void apply(ResourceManager manager) {
-        SkyboxManager skyboxManager = SkyboxManager.getInstance();
-
-        // clear registered skyboxes on reload
-        skyboxManager.clearSkyboxes();
-
-        // load new skyboxes
+    public CompletableFuture<LoadedSkyboxes> load(ResourceManager manager, Profiler profiler, Executor executor) {
         // ! This will not work with schema versions at wrong version... remember the long debugging process you had that one time
-        Collection<Identifier> resources = manager.findResources("sky", (string) -> string.endsWith(".json"));
-
-        for (Identifier id : resources) {
-            try {
-                JsonObject json = GSON.fromJson(new InputStreamReader(manager.getResource(id).getInputStream()), JsonObject.class);
-                objectWrapper.setFocusedObject(json);
-                skyboxManager.addSkybox(parseSkyboxJson());
-            } catch (IOException ignored) {
+        // the tables of the previous skyboxes are kept by them until they are replaced, the new skyboxes share their own
+        FadeTable.clearCache();
+        return CompletableFuture.supplyAsync(SkyboxCache::read, executor)
+                .thenCompose(cache -> {
+                    Collection<Identifier> resources = manager.findResources("sky", (string) -> string.endsWith(".json"));
+                    List<CompletableFuture<AbstractSkybox>> futures = resources.stream()
+                            .map(id -> CompletableFuture.supplyAsync(() -> this.loadSkybox(manager, id, cache), executor))
+                            .collect(Collectors.toList());
+                    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                            .thenApplyAsync(v -> {
+                                cache.write();
+                                return futures.stream()
+                                        .map(CompletableFuture::join)
+                                        .filter(Objects::nonNull)
+                                        .collect(Collectors.toList());
+                            }, executor);
+                })
+                .thenCompose(skyboxes -> {
+                    CompletableFuture<Map<Textures, NativeImage>> atlases = this.stitchAtlases(manager, skyboxes, executor);
+                    Set<Identifier> textureIds = Sets.newLinkedHashSet();
+                    Set<Identifier> opacityIds = Sets.newHashSet();
+                    for (AbstractSkybox skybox : skyboxes) {
+                        skybox.collectTextures(textureIds::add);
+                        if (skybox instanceof TexturedSkybox && !((TexturedSkybox) skybox).blend) {
+                            ((TexturedSkybox) skybox).collectSkyTextures(opacityIds::add);
+                        }
+                    }
+                    // the texture manager is only read on the render thread
+                    CompletableFuture<Map<Identifier, SkyboxTextureLoader.PreloadedTexture>> textures = CompletableFuture.supplyAsync(() -> SkyboxTextureLoader.getUnregistered(textureIds), MinecraftClient.getInstance())
+                            .thenCompose(unregistered -> SkyboxTextureLoader.decode(manager, unregistered, opacityIds, executor));
+                    // faces that could not be stitched are drawn one by one, so they are decoded once stitching failed
+                    CompletableFuture<Map<Identifier, SkyboxTextureLoader.PreloadedTexture>> faces = atlases.thenCompose(stitched -> {
+                        Set<Identifier> faceIds = Sets.newLinkedHashSet();
+                        Set<Identifier> faceOpacityIds = Sets.newHashSet();
+                        for (AbstractSkybox skybox : skyboxes) {
+                            if (skybox instanceof SquareTexturedSkybox && ((SquareTexturedSkybox) skybox).isStitched() && !stitched.containsKey(((SquareTexturedSkybox) skybox).getTextures())) {
+                                SquareTexturedSkybox squareSkybox = (SquareTexturedSkybox) skybox;
+                                squareSkybox.setStitchFailed(true);
+                                squareSkybox.collectSkyTextures(id -> {
+                                    if (!textureIds.contains(id)) {
+                                        faceIds.add(id);
+                                        if (!squareSkybox.blend) {
+                                            faceOpacityIds.add(id);
+                                        }
+                                    }
+                                });
+                            }
+                        }
+                        return CompletableFuture.supplyAsync(() -> SkyboxTextureLoader.getUnregistered(faceIds), MinecraftClient.getInstance())
+                                .thenCompose(unregistered -> SkyboxTextureLoader.decode(manager, unregistered, faceOpacityIds, executor));
+                    });
+                    return textures.thenCombine(faces, (decoded, decodedFaces) -> {
+                        Map<Identifier, SkyboxTextureLoader.PreloadedTexture> all = Maps.newLinkedHashMap(decoded);
+                        all.putAll(decodedFaces);
+                        return all;
+                    }).thenCombine(atlases, (all, stitched) -> new LoadedSkyboxes(skyboxes, stitched, all));
+                });
+    }
+
+    /**
+     * Stitches the faces of every stitched skybox in parallel. Skyboxes sharing the same textures share one atlas.
+     */
+    private CompletableFuture<Map<Textures, NativeImage>> stitchAtlases(ResourceManager manager, List<AbstractSkybox> skyboxes, Executor executor) {
+        Map<Textures, CompletableFuture<NativeImage>> futures = Maps.newHashMap();
+        for (AbstractSkybox skybox : skyboxes) {
+            if (skybox instanceof SquareTexturedSkybox && ((SquareTexturedSkybox) skybox).isStitched()) {
+                Textures textures = ((SquareTexturedSkybox) skybox).getTextures();
+                futures.computeIfAbsent(textures, t -> CompletableFuture.supplyAsync(() -> CubeAtlasStitcher.stitch(manager, t), executor));
             }
         }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Map<Textures, NativeImage> atlases = Maps.newHashMap();
+                    futures.forEach((textures, future) -> {
+                        NativeImage image = future.join();
+                        if (image != null) {
+                            atlases.put(textures, image);
+                        }
+                    });
+                    return atlases;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> apply(LoadedSkyboxes loaded, ResourceManager manager, Profiler profiler, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            SkyboxManager skyboxManager = SkyboxManager.getInstance();
+            int count = loaded.skyboxes.size();
+
+            // clear registered skyboxes on reload
+            SkyboxEvents.Span span = SkyboxEvents.reloadPhase("clear").count(count);
+            skyboxManager.clearSkyboxes();
+            span.end();
+
+            span = SkyboxEvents.reloadPhase("upload atlases").count(count);
+            Map<Textures, Identifier> atlases = CubeAtlasStitcher.upload(loaded.atlases);
+            span.end();
+
+            span = SkyboxEvents.reloadPhase("enqueue textures").count(count);
+            SkyboxTextureLoader.enqueue(loaded.textures, loaded.skyboxes);
+            span.end();
+
+            span = SkyboxEvents.reloadPhase("add skyboxes").count(count);
+            for (AbstractSkybox skybox : loaded.skyboxes) {
+                if (skybox instanceof SquareTexturedSkybox && ((SquareTexturedSkybox) skybox).isStitched()) {
+                    ((SquareTexturedSkybox) skybox).setAtlasTexture(atlases.get(((SquareTexturedSkybox) skybox).getTextures()));
+                }
+                skyboxManager.addSkybox(skybox);
+            }
+            span.end();
+        }, executor);
     }
 
     @Override
@@ -54,8 +175,36 @@ public class SkyboxResourceListener implements SimpleSynchronousResourceReloadLi
         return new Identifier("fabricskyboxes", "skybox_json");
     }
 
-    private AbstractSkybox parseSkyboxJson() {
-        AbstractSkybox skybox = null;
+    /**
+     * Reads and decodes a single skybox file, or takes it from the cache if the file did not change.
+     *
+     * @return The skybox, or null if the file could not be loaded. A broken file does not stop the others from loading.
+     */
+    private AbstractSkybox loadSkybox(ResourceManager manager, Identifier id, SkyboxCache cache) {
+        SkyboxEvents.Span span = SkyboxEvents.skyboxDecode(id).detail("cache");
+        try (Resource resource = manager.getResource(id)) {
+            byte[] bytes = IOUtils.toByteArray(resource.getInputStream());
+            byte[] hash = SkyboxCache.hash(bytes);
+            AbstractSkybox skybox = cache.get(id, hash);
+            if (skybox == null) {
+                span.detail("json");
+                JsonObjectWrapper objectWrapper = new JsonObjectWrapper();
+                objectWrapper.setFocusedObject(GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), JsonObject.class));
+                skybox = this.parseSkyboxJson(objectWrapper);
+                cache.put(id, hash, skybox);
+            }
+            skybox.resourceId = id;
+            return skybox;
+        } catch (IOException | RuntimeException e) {
+            FabricSkyBoxesClient.getLogger().error("Could not load skybox " + id, e);
+            return null;
+        } finally {
+            span.end();
+        }
+    }
+
+    AbstractSkybox parseSkyboxJson(JsonObjectWrapper objectWrapper) {
+        AbstractSkybox skybox;
 
         try {
             int schemaVersion = 1;
@@ -63,21 +212,17 @@ public class SkyboxResourceListener implements SimpleSynchronousResourceReloadLi
                 schemaVersion = objectWrapper.get("schemaVersion").getAsInt();
             }
             String jsonSkyboxType = objectWrapper.get("type").getAsString();
-            for (Supplier<? extends AbstractSkybox> skyboxType : SkyboxManager.getSkyboxTypes()) {
-                if (jsonSkyboxType.equals(skyboxType.get().getType())) {
-                    skybox = skyboxType.get();
-                    break;
-                }
-            }
+            SkyboxType<?> skyboxType = SkyboxManager.getSkyboxType(jsonSkyboxType);
 
-            if (skybox == null) {
-                throw new IllegalStateException();
+            if (skyboxType == null) {
+                throw new IllegalStateException("Unknown skybox type " + jsonSkyboxType);
             }
             if (schemaVersion > 1) {
-                Codec<? extends AbstractSkybox> codec = Objects.requireNonNull(skybox.getCodec(schemaVersion), String.format("Schema version %s is not supported by type %s of class %s", schemaVersion, skybox.getType(), skybox.getClass().getName()));
+                Codec<? extends AbstractSkybox> codec = Objects.requireNonNull(skyboxType.getCodec(schemaVersion), String.format("Schema version %s is not supported by type %s", schemaVersion, skyboxType.getId()));
                 skybox = codec.decode(JsonOps.INSTANCE, objectWrapper.getFocusedObject()).getOrThrow(false, System.err::println).getFirst();
                 return skybox;
             }
+            skybox = skyboxType.create();
             skybox.parseJson(objectWrapper);
         } catch (RuntimeException e) {
             RuntimeException exception = new NullPointerException("Could not get a required field.");
@@ -87,4 +232,16 @@ public class SkyboxResourceListener implements SimpleSynchronousResourceReloadLi
 
         return Objects.requireNonNull(skybox);
     }
+
+    static class LoadedSkyboxes {
+        private final List<AbstractSkybox> skyboxes;
+        private final Map<Textures, NativeImage> atlases;
+        private final Map<Identifier, SkyboxTextureLoader.PreloadedTexture> textures;
+
+        private LoadedSkyboxes(List<AbstractSkybox> skyboxes, Map<Textures, NativeImage> atlases, Map<Identifier, SkyboxTextureLoader.PreloadedTexture> textures) {
+            this.skyboxes = skyboxes;
+            this.atlases = atlases;
+            this.textures = textures;
+        }
+    }
 }
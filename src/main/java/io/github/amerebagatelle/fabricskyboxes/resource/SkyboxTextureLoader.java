@@ -0,0 +1,275 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.textured.TexturedSkybox;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.ResourceTexture;
+import net.minecraft.client.texture.TextureManager;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the textures of skyboxes while reloading, instead of the first time they are bound while rendering.
+ * Textures are decoded a few at a time on the reload executor and then uploaded on the render thread by the
+ * {@link TextureUploadQueue}. The time spent decoding and uploading each texture is logged and kept by the queue.
+ */
+public class SkyboxTextureLoader {
+    /**
+     * The number of textures decoded at the same time, which can be changed with the {@code fabricskyboxes.parallelDecodes}
+     * system property. Defaults to half of the available processors, so that the other reload listeners are not starved.
+     */
+    private static final int PARALLEL_DECODES = Math.max(1, Integer.getInteger("fabricskyboxes.parallelDecodes", Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * Decodes the given textures, at most {@link #PARALLEL_DECODES} at a time. Textures that cannot be read are left
+     * to be loaded when they are bound.
+     *
+     * @param opacityIds The textures to check for transparent pixels. Only the textures of skyboxes that are not
+     *                   blended can hide the skyboxes beneath them, so the others are not checked.
+     */
+    public static CompletableFuture<Map<Identifier, PreloadedTexture>> decode(ResourceManager manager, Collection<Identifier> ids, Set<Identifier> opacityIds, Executor executor) {
+        List<Identifier> list = Lists.newArrayList(ids);
+        PreloadedTexture[] decoded = new PreloadedTexture[list.size()];
+        int lanes = Math.min(PARALLEL_DECODES, list.size());
+        List<CompletableFuture<Void>> futures = Lists.newArrayList();
+        for (int lane = 0; lane < lanes; lane++) {
+            int first = lane;
+            // each lane decodes its textures one after another, which bounds the native memory in use while decoding
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = first; i < list.size(); i += lanes) {
+                    decoded[i] = decode(manager, list.get(i), opacityIds.contains(list.get(i)));
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Map<Identifier, PreloadedTexture> textures = Maps.newLinkedHashMap();
+                    for (int i = 0; i < decoded.length; i++) {
+                        if (decoded[i] != null) {
+                            textures.put(list.get(i), decoded[i]);
+                        }
+                    }
+                    return textures;
+                });
+    }
+
+    /**
+     * Leaves out the textures that are already registered, such as the vanilla sun and moon or the textures of the
+     * previous reload, as the texture manager reloads those itself. Must be called on the render thread.
+     */
+    public static Set<Identifier> getUnregistered(Collection<Identifier> ids) {
+        TextureManager textureManager = MinecraftClient.getInstance().getTextureManager();
+        Set<Identifier> unregistered = Sets.newLinkedHashSet();
+        for (Identifier id : ids) {
+            if (textureManager.getTexture(id) == null) {
+                unregistered.add(id);
+            }
+        }
+        return unregistered;
+    }
+
+    static PreloadedTexture decode(ResourceManager manager, Identifier id, boolean checkOpacity) {
+        SkyboxEvents.Span span = SkyboxEvents.textureLoad(id, "decode");
+        long start = System.nanoTime();
+        ResourceTexture.TextureData data = ResourceTexture.TextureData.load(manager, id);
+        try {
+            PreloadedTexture texture = new PreloadedTexture(id, data, checkOpacity, System.nanoTime() - start);
+            span.count(texture.getSize());
+            return texture;
+        } catch (IOException e) {
+            FabricSkyBoxesClient.getLogger().warn("Could not preload skybox texture " + id, e);
+            data.close();
+            return null;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Queues the decoded textures to be uploaded by the {@link TextureUploadQueue}, replacing the textures still
+     * queued from the previous reload. Textures that are already registered are left alone, as the texture manager
+     * reloads those itself. Must be called on the render thread.
+     */
+    public static void enqueue(Map<Identifier, PreloadedTexture> textures, List<AbstractSkybox> skyboxes) {
+        TextureManager textureManager = MinecraftClient.getInstance().getTextureManager();
+        TextureUploadQueue queue = TextureUploadQueue.getInstance();
+        queue.clear();
+
+        Map<Identifier, List<AbstractSkybox>> textureUsers = Maps.newHashMap();
+        for (AbstractSkybox skybox : skyboxes) {
+            skybox.collectTextures(id -> {
+                List<AbstractSkybox> list = textureUsers.computeIfAbsent(id, i -> Lists.newArrayList());
+                if (!list.contains(skybox)) {
+                    list.add(skybox);
+                }
+            });
+        }
+
+        TextureResidency.getInstance().retain(textureUsers);
+
+        for (AbstractSkybox skybox : skyboxes) {
+            if (skybox instanceof TexturedSkybox) {
+                ((TexturedSkybox) skybox).opaqueTextures = hasOpaqueSky((TexturedSkybox) skybox, textures);
+            }
+        }
+
+        long totalDecodeNanos = 0L;
+        for (Map.Entry<Identifier, PreloadedTexture> entry : textures.entrySet()) {
+            Identifier id = entry.getKey();
+            PreloadedTexture texture = entry.getValue();
+            if (textureManager.getTexture(id) != null) {
+                texture.discard();
+                continue;
+            }
+            List<AbstractSkybox> users = textureUsers.getOrDefault(id, Collections.emptyList());
+            for (AbstractSkybox skybox : users) {
+                skybox.pendingTextures++;
+            }
+            queue.add(id, texture, users);
+            totalDecodeNanos += texture.decodeNanos;
+        }
+        if (queue.getQueueDepth() > 0) {
+            FabricSkyBoxesClient.getLogger().info("Decoded {} skybox textures ({} ms across threads), {} bytes queued for upload", queue.getQueueDepth(), toMillis(totalDecodeNanos), queue.getPendingBytes());
+        }
+    }
+
+    /**
+     * @return Whether the sky of the skybox is drawn only with textures that were found to have no transparent pixels.
+     * Skyboxes whose textures were not loaded here, such as stitched skyboxes, are never considered opaque.
+     */
+    private static boolean hasOpaqueSky(TexturedSkybox skybox, Map<Identifier, PreloadedTexture> textures) {
+        List<Identifier> ids = Lists.newArrayList();
+        skybox.collectSkyTextures(ids::add);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        for (Identifier id : ids) {
+            PreloadedTexture texture = textures.get(id);
+            // textures kept from the previous reload are not decoded again, but were checked when they were
+            if (texture != null ? !texture.isOpaque() : !TextureResidency.getInstance().isOpaque(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * A texture that uses data decoded in advance the first time it is loaded, and reads its
+     * resource again on every later load, such as when the texture manager reloads.
+     */
+    public static class PreloadedTexture extends ResourceTexture {
+        private ResourceTexture.TextureData data;
+        private final long decodeNanos;
+        private final long size;
+        private final boolean opacityChecked;
+        private final boolean opaque;
+
+        private PreloadedTexture(Identifier location, ResourceTexture.TextureData data, boolean checkOpacity, long decodeNanos) throws IOException {
+            super(location);
+            this.data = data;
+            this.decodeNanos = decodeNanos;
+            NativeImage image = data.getImage();
+            this.size = (long) image.getWidth() * image.getHeight() * image.getFormat().getChannelCount();
+            this.opacityChecked = checkOpacity;
+            this.opaque = checkOpacity && isOpaque(image);
+        }
+
+        private static boolean isOpaque(NativeImage image) {
+            NativeImage.Format format = image.getFormat();
+            if (format != NativeImage.Format.ABGR) {
+                return format == NativeImage.Format.BGR || format == NativeImage.Format.LUMINANCE;
+            }
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    if ((image.getPixelColor(x, y) >>> 24) != 0xFF) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected ResourceTexture.TextureData loadTextureData(ResourceManager resourceManager) {
+            if (this.data != null) {
+                ResourceTexture.TextureData data = this.data;
+                this.data = null;
+                return data;
+            }
+            return super.loadTextureData(resourceManager);
+        }
+
+        void discard() {
+            if (this.data != null) {
+                this.data.close();
+                this.data = null;
+            }
+        }
+
+        public long getDecodeNanos() {
+            return this.decodeNanos;
+        }
+
+        /**
+         * @return The size of the decoded image in bytes.
+         */
+        public long getSize() {
+            return this.size;
+        }
+
+        public boolean isOpacityChecked() {
+            return this.opacityChecked;
+        }
+
+        /**
+         * @return Whether the decoded image was checked and has no transparent pixels.
+         */
+        public boolean isOpaque() {
+            return this.opaque;
+        }
+    }
+
+    public static class Timing {
+        private final Identifier id;
+        private final long decodeNanos;
+        private final long uploadNanos;
+
+        Timing(Identifier id, long decodeNanos, long uploadNanos) {
+            this.id = id;
+            this.decodeNanos = decodeNanos;
+            this.uploadNanos = uploadNanos;
+        }
+
+        public Identifier getId() {
+            return this.id;
+        }
+
+        public long getDecodeNanos() {
+            return this.decodeNanos;
+        }
+
+        public long getUploadNanos() {
+            return this.uploadNanos;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+
+import java.util.List;
+
+/**
+ * Decides which skybox textures should be resident ahead of time. The fade schedule tells exactly when a skybox
+ * starts fading in, so textures of skyboxes in the current world that fade in within the lookahead are kept or
+ * loaded early, whatever their biome, height and weather conditions, as those can change at any moment.
+ *
+ * <p>The lookahead defaults to {@value #DEFAULT_LOOKAHEAD_TICKS} ticks and can be changed with the
+ * {@code fabricskyboxes.prefetchTicks} system property.</p>
+ */
+public final class TexturePrefetcher {
+    private static final int DEFAULT_LOOKAHEAD_TICKS = 1200;
+    private static int lookaheadTicks = Integer.getInteger("fabricskyboxes.prefetchTicks", DEFAULT_LOOKAHEAD_TICKS);
+
+    private TexturePrefetcher() {
+    }
+
+    /**
+     * @return Whether the skybox is visible now or may become visible within the lookahead.
+     */
+    public static boolean isNeededSoon(AbstractSkybox skybox, EnvironmentSnapshot environment) {
+        if (skybox.alpha > 0f || skybox.prevAlpha > 0f) {
+            return true;
+        }
+        if (!skybox.getCompiledConditions().testWorld(environment)) {
+            return false;
+        }
+        return skybox.getTicksUntilFadeIn(environment.getTimeOfDay()) <= lookaheadTicks;
+    }
+
+    /**
+     * @return Whether any of the skyboxes is visible now or may become visible within the lookahead.
+     */
+    public static boolean isAnyNeededSoon(List<AbstractSkybox> skyboxes, EnvironmentSnapshot environment) {
+        for (AbstractSkybox skybox : skyboxes) {
+            if (isNeededSoon(skybox, environment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int getLookaheadTicks() {
+        return lookaheadTicks;
+    }
+
+    public static void setLookaheadTicks(int lookaheadTicks) {
+        TexturePrefetcher.lookaheadTicks = lookaheadTicks;
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the memory used by skybox textures within a budget. When the textures uploaded by the
+ * {@link TextureUploadQueue} use more than the budget, the least recently used textures whose skyboxes have
+ * not been visible for a while are destroyed. Textures the {@link TexturePrefetcher} expects to be needed soon
+ * are never evicted, and evicted textures are decoded and queued again as soon as it expects them to be needed,
+ * so that skyboxes fade in with their textures already resident.
+ *
+ * <p>The budget defaults to {@value #DEFAULT_BUDGET_MEGABYTES} MiB and the idle time to {@value #DEFAULT_IDLE_SECONDS}
+ * seconds, and can be changed with the {@code fabricskyboxes.textureBudgetMegabytes} and {@code fabricskyboxes.textureIdleSeconds}
+ * system properties.</p>
+ */
+public class TextureResidency {
+    private static final TextureResidency INSTANCE = new TextureResidency();
+    private static final long DEFAULT_BUDGET_MEGABYTES = 512L;
+    private static final long DEFAULT_IDLE_SECONDS = 60L;
+
+    private final Map<Identifier, Entry> entries = Maps.newLinkedHashMap();
+    private long budgetBytes = Long.getLong("fabricskyboxes.textureBudgetMegabytes", DEFAULT_BUDGET_MEGABYTES) * 1024 * 1024;
+    private long idleTicks = Long.getLong("fabricskyboxes.textureIdleSeconds", DEFAULT_IDLE_SECONDS) * 20;
+    private long ticks;
+    private long residentBytes;
+    private int evictions;
+    private int reloads;
+    /**
+     * Incremented on every resource reload, so that textures still being decoded for the previous skyboxes are dropped.
+     */
+    private int generation;
+
+    /**
+     * Starts tracking a texture uploaded by the {@link TextureUploadQueue}.
+     */
+    void onUploaded(Identifier id, SkyboxTextureLoader.PreloadedTexture texture, List<AbstractSkybox> skyboxes) {
+        Entry entry = this.entries.computeIfAbsent(id, i -> new Entry(id, texture.getSize()));
+        if (texture.isOpacityChecked()) {
+            entry.opaque = texture.isOpaque();
+        }
+        entry.skyboxes = skyboxes;
+        entry.state = State.RESIDENT;
+        entry.lastUsedTick = this.ticks;
+        this.residentBytes += entry.size;
+    }
+
+    /**
+     * Updates the tracked textures for newly loaded skyboxes. Textures that no skybox uses anymore are destroyed,
+     * and evicted textures are forgotten, as the reload decodes them again. Must be called on the render thread.
+     */
+    void retain(Map<Identifier, List<AbstractSkybox>> users) {
+        this.generation++;
+        this.entries.values().removeIf(entry -> {
+            List<AbstractSkybox> skyboxes = users.get(entry.id);
+            if (entry.state == State.RESIDENT && skyboxes != null) {
+                entry.skyboxes = skyboxes;
+                return false;
+            }
+            if (entry.state == State.RESIDENT) {
+                MinecraftClient.getInstance().getTextureManager().destroyTexture(entry.id);
+                this.residentBytes -= entry.size;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Evicts idle textures if the budget is exceeded, and reloads evicted textures that are needed again. Called once per client tick.
+     */
+    public void tick(EnvironmentSnapshot environment) {
+        this.ticks++;
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        for (Entry entry : this.entries.values()) {
+            if (entry.state == State.RESIDENT) {
+                for (AbstractSkybox skybox : entry.skyboxes) {
+                    if (skybox.alpha > 0f || skybox.prevAlpha > 0f) {
+                        entry.lastUsedTick = this.ticks;
+                        break;
+                    }
+                }
+            } else if (entry.state == State.EVICTED && TexturePrefetcher.isAnyNeededSoon(entry.skyboxes, environment)) {
+                this.reload(entry);
+            }
+        }
+        if (this.residentBytes > this.budgetBytes) {
+            this.evictIdle(environment);
+        }
+    }
+
+    private void evictIdle(EnvironmentSnapshot environment) {
+        List<Entry> candidates = Lists.newArrayList();
+        for (Entry entry : this.entries.values()) {
+            if (entry.state == State.RESIDENT && this.ticks - entry.lastUsedTick >= this.idleTicks && !TexturePrefetcher.isAnyNeededSoon(entry.skyboxes, environment)) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.lastUsedTick));
+        for (Entry entry : candidates) {
+            if (this.residentBytes <= this.budgetBytes) {
+                break;
+            }
+            MinecraftClient.getInstance().getTextureManager().destroyTexture(entry.id);
+            for (AbstractSkybox skybox : entry.skyboxes) {
+                skybox.pendingTextures++;
+            }
+            entry.state = State.EVICTED;
+            this.residentBytes -= entry.size;
+            this.evictions++;
+            FabricSkyBoxesClient.getLogger().debug("Evicted skybox texture {} ({} bytes)", entry.id, entry.size);
+        }
+    }
+
+    private void reload(Entry entry) {
+        entry.state = State.LOADING;
+        this.reloads++;
+        int generation = this.generation;
+        MinecraftClient client = MinecraftClient.getInstance();
+        CompletableFuture.supplyAsync(() -> SkyboxTextureLoader.decode(client.getResourceManager(), entry.id, false), Util.getMainWorkerExecutor())
+                .thenAcceptAsync(texture -> {
+                    if (generation != this.generation) {
+                        if (texture != null) {
+                            texture.discard();
+                        }
+                    } else if (texture != null) {
+                        TextureUploadQueue.getInstance().add(entry.id, texture, entry.skyboxes);
+                    } else {
+                        // leave the texture to be loaded when it is bound rather than hiding its skyboxes forever
+                        this.entries.remove(entry.id);
+                        for (AbstractSkybox skybox : entry.skyboxes) {
+                            skybox.pendingTextures--;
+                        }
+                    }
+                }, client);
+    }
+
+    /**
+     * @return Whether the texture was uploaded by the {@link TextureUploadQueue} and found to have no transparent pixels.
+     */
+    public boolean isOpaque(Identifier id) {
+        Entry entry = this.entries.get(id);
+        return entry != null && entry.opaque;
+    }
+
+    public void setBudget(long budgetBytes, long idleTicks) {
+        this.budgetBytes = budgetBytes;
+        this.idleTicks = idleTicks;
+    }
+
+    public long getResidentBytes() {
+        return this.residentBytes;
+    }
+
+    public long getBudgetBytes() {
+        return this.budgetBytes;
+    }
+
+    public int getEvictions() {
+        return this.evictions;
+    }
+
+    public int getReloads() {
+        return this.reloads;
+    }
+
+    public static TextureResidency getInstance() {
+        return INSTANCE;
+    }
+
+    private enum State {
+        RESIDENT,
+        EVICTED,
+        LOADING
+    }
+
+    private static class Entry {
+        private final Identifier id;
+        private final long size;
+        private List<AbstractSkybox> skyboxes;
+        private State state = State.RESIDENT;
+        private long lastUsedTick;
+        private boolean opaque;
+
+        private Entry(Identifier id, long size) {
+            this.id = id;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.amerebagatelle.fabricskyboxes.resource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.debug.SkyboxEvents;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.TextureManager;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads decoded skybox textures on the render thread, a few at a time, so that uploading many large
+ * textures does not stall a single frame. Each frame uploads textures until either the time budget or the
+ * byte budget is spent, starting with the textures of the skyboxes that will be visible soonest.
+ *
+ * <p>The budgets default to {@value #DEFAULT_BUDGET_MILLIS} ms and {@value #DEFAULT_BUDGET_BYTES} bytes per frame
+ * and can be changed with the {@code fabricskyboxes.uploadBudgetMillis} and {@code fabricskyboxes.uploadBudgetBytes}
+ * system properties. At least one texture is uploaded every frame, however large it is.</p>
+ */
+public class TextureUploadQueue {
+    private static final TextureUploadQueue INSTANCE = new TextureUploadQueue();
+    private static final long DEFAULT_BUDGET_MILLIS = 2L;
+    private static final long DEFAULT_BUDGET_BYTES = 16L * 1024 * 1024;
+    /**
+     * The number of timings kept, as textures evicted by the {@link TextureResidency} are uploaded again without a reload.
+     */
+    private static final int MAX_TIMINGS = 256;
+    private static final Comparator<Entry> LEAST_URGENT_FIRST = Comparator.comparingInt((Entry entry) -> entry.ticksUntilNeeded).reversed();
+
+    /**
+     * Ordered so that the most urgent texture is last, so that it can be removed cheaply.
+     */
+    private final List<Entry> entries = Lists.newArrayList();
+    private long budgetNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("fabricskyboxes.uploadBudgetMillis", DEFAULT_BUDGET_MILLIS));
+    private long budgetBytes = Long.getLong("fabricskyboxes.uploadBudgetBytes", DEFAULT_BUDGET_BYTES);
+    private long pendingBytes;
+    private long lastFrameUploadNanos;
+    private int lastFrameUploads;
+    private final Deque<SkyboxTextureLoader.Timing> timings = new ArrayDeque<>();
+    private boolean sorted = true;
+
+    /**
+     * Adds a texture to the queue. The caller counts the texture in {@link AbstractSkybox#pendingTextures} of every
+     * skybox using it, which keeps those skyboxes hidden until it is uploaded.
+     */
+    public void add(Identifier id, SkyboxTextureLoader.PreloadedTexture texture, List<AbstractSkybox> skyboxes) {
+        this.entries.add(new Entry(id, texture, skyboxes));
+        this.pendingBytes += texture.getSize();
+        this.sorted = false;
+    }
+
+    /**
+     * Drops every queued texture, such as when skyboxes are reloaded.
+     */
+    public void clear() {
+        for (Entry entry : this.entries) {
+            entry.texture.discard();
+        }
+        this.entries.clear();
+        this.pendingBytes = 0L;
+        this.sorted = true;
+        this.timings.clear();
+    }
+
+    /**
+     * Orders the queue by how soon the skyboxes using each texture will become visible. Called once per client tick,
+     * but only sorts when a texture was added or became needed sooner or later than before.
+     */
+    public void prioritize(EnvironmentSnapshot environment) {
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        for (Entry entry : this.entries) {
+            int ticks = Integer.MAX_VALUE;
+            for (AbstractSkybox skybox : entry.skyboxes) {
+                ticks = Math.min(ticks, skybox.getTicksUntilVisible(environment));
+            }
+            if (entry.ticksUntilNeeded != ticks) {
+                entry.ticksUntilNeeded = ticks;
+                this.sorted = false;
+            }
+        }
+        if (!this.sorted) {
+            this.entries.sort(LEAST_URGENT_FIRST);
+            this.sorted = true;
+        }
+    }
+
+    /**
+     * Uploads queued textures until this frame's budget is spent. Must be called on the render thread.
+     */
+    public void uploadFrame() {
+        this.lastFrameUploadNanos = 0L;
+        this.lastFrameUploads = 0;
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        TextureManager textureManager = MinecraftClient.getInstance().getTextureManager();
+        long frameStart = System.nanoTime();
+        long frameBytes = 0L;
+        do {
+            Entry entry = this.entries.remove(this.entries.size() - 1);
+            SkyboxEvents.Span span = SkyboxEvents.textureLoad(entry.id, "upload").count(entry.texture.getSize());
+            long start = System.nanoTime();
+            textureManager.registerTexture(entry.id, entry.texture);
+            long uploadNanos = System.nanoTime() - start;
+            span.end();
+            for (AbstractSkybox skybox : entry.skyboxes) {
+                skybox.pendingTextures--;
+            }
+            TextureResidency.getInstance().onUploaded(entry.id, entry.texture, entry.skyboxes);
+            this.pendingBytes -= entry.texture.getSize();
+            frameBytes += entry.texture.getSize();
+            this.lastFrameUploads++;
+
+            SkyboxTextureLoader.Timing timing = new SkyboxTextureLoader.Timing(entry.id, entry.texture.getDecodeNanos(), uploadNanos);
+            FabricSkyBoxesClient.getLogger().debug("Loaded skybox texture {} (decode {} ms, upload {} ms)", entry.id, SkyboxTextureLoader.toMillis(timing.getDecodeNanos()), SkyboxTextureLoader.toMillis(timing.getUploadNanos()));
+            if (this.timings.size() == MAX_TIMINGS) {
+                this.timings.removeFirst();
+            }
+            this.timings.addLast(timing);
+        } while (!this.entries.isEmpty() && System.nanoTime() - frameStart < this.budgetNanos && frameBytes < this.budgetBytes);
+        this.lastFrameUploadNanos = System.nanoTime() - frameStart;
+    }
+
+    public void setBudget(long budgetNanos, long budgetBytes) {
+        this.budgetNanos = budgetNanos;
+        this.budgetBytes = budgetBytes;
+    }
+
+    public int getQueueDepth() {
+        return this.entries.size();
+    }
+
+    public long getPendingBytes() {
+        return this.pendingBytes;
+    }
+
+    public long getLastFrameUploadNanos() {
+        return this.lastFrameUploadNanos;
+    }
+
+    public int getLastFrameUploads() {
+        return this.lastFrameUploads;
+    }
+
+    /**
+     * @return The last textures uploaded since the last reload, with the time spent on each.
+     */
+    public List<SkyboxTextureLoader.Timing> getTimings() {
+        return ImmutableList.copyOf(this.timings);
+    }
+
+    public static TextureUploadQueue getInstance() {
+        return INSTANCE;
+    }
+
+    private static class Entry {
+        private final Identifier id;
+        private final SkyboxTextureLoader.PreloadedTexture texture;
+        private final List<AbstractSkybox> skyboxes;
+        private int ticksUntilNeeded;
+
+        private Entry(Identifier id, SkyboxTextureLoader.PreloadedTexture texture, List<AbstractSkybox> skyboxes) {
+            this.id = id;
+            this.texture = texture;
+            this.skyboxes = skyboxes;
+        }
+    }
+}
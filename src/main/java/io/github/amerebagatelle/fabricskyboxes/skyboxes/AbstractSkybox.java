@@ -5,52 +5,88 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.mojang.blaze3d.platform.GlStateManager;
-import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.serialization.Codec;
 import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
 import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyMesh;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.resource.SkyboxCache;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
 import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
-import io.github.amerebagatelle.fabricskyboxes.util.Utils;
+import io.github.amerebagatelle.fabricskyboxes.util.MatrixStackSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.RenderStateTracker;
 import io.github.amerebagatelle.fabricskyboxes.util.object.*;
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.gl.VertexBuffer;
-import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.BufferRenderer;
-import net.minecraft.client.render.VertexFormats;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.client.util.math.Vector3f;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.JsonHelper;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Matrix3f;
 import net.minecraft.util.math.Matrix4f;
-import net.minecraft.util.registry.Registry;
-import net.minecraft.world.biome.Biome;
+import net.minecraft.util.math.Quaternion;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * All classes that implement {@link AbstractSkybox} should
- * have a default constructor as it is required when checking
- * the type of the skybox.
+ * have a default constructor, which is used by their {@link SkyboxType}
+ * to create skyboxes that are filled from json or the skybox cache.
  */
 public abstract class AbstractSkybox {
+    /**
+     * The constant part of the rotation of the sun, moon and stars, which turns the sky so that they rise in the east.
+     */
+    private static final Matrix4f DECORATION_MODEL = new Matrix4f(Vector3f.POSITIVE_Y.getDegreesQuaternion(-90.0F));
+    private static final Matrix3f DECORATION_NORMAL = new Matrix3f(Vector3f.POSITIVE_Y.getDegreesQuaternion(-90.0F));
+    /**
+     * The rotation of the sun, moon and stars by the sky angle, and the matrices to restore after drawing them,
+     * shared as decorations are only rendered on the render thread and once per frame.
+     */
+    private static final AxisRotation DECORATION_SKY_ANGLE = new AxisRotation(Vector3f.POSITIVE_X, Quaternion.IDENTITY);
+    private static final MatrixStackSnapshot DECORATION_MATRICES = new MatrixStackSnapshot();
+
     /**
      * The current alpha for the skybox. Expects all skyboxes extending this to accommodate this.
-     * This variable is responsible for fading in/out skyboxes.
+     * This variable is responsible for fading in/out skyboxes, and is updated once per client tick by {@link #tick()}.
      */
     public transient float alpha;
+    /**
+     * The alpha of the skybox on the previous client tick, used to interpolate the alpha between ticks.
+     */
+    public transient float prevAlpha;
+    /**
+     * The position of this skybox in the render order of all loaded skyboxes. Assigned by the {@link SkyboxManager}.
+     */
+    public transient int layerIndex = -1;
+    /**
+     * The number of textures of this skybox that are still waiting to be uploaded. Skyboxes are only rendered once
+     * this reaches zero, until then the vanilla sky is rendered in their place.
+     */
+    public transient int pendingTextures;
+    /**
+     * The json file this skybox was loaded from, or null if it was not loaded from a resource pack.
+     * Assigned by the {@code SkyboxResourceListener}, and used to name the skybox in debug output.
+     */
+    public transient Identifier resourceId;
 
     // ! These are the options variables.  Do not mess with these.
     protected Fade fade = Fade.ZERO;
+    protected transient FadeTable fadeTable = FadeTable.of(Fade.ZERO);
     protected float maxAlpha = 1f;
     protected float transitionSpeed = 1;
     protected boolean changeFog = false;
     protected RGBA fogColors = RGBA.ZERO;
     protected boolean shouldRotate = false;
+    protected int priority = 0;
     protected List<String> weather = new ArrayList<>();
     protected List<Identifier> biomes = new ArrayList<>();
     protected Decorations decorations = Decorations.DEFAULT;
@@ -59,6 +95,7 @@ public abstract class AbstractSkybox {
      */
     protected List<Identifier> worlds = new ArrayList<>();
     protected List<HeightEntry> heightRanges = Lists.newArrayList();
+    protected transient CompiledConditions compiledConditions = new CompiledConditions(this.worlds, this.biomes, this.weather, this.heightRanges);
 
     /**
      * The main render method for a skybox.
@@ -84,55 +121,32 @@ public abstract class AbstractSkybox {
 
     protected AbstractSkybox(DefaultProperties properties, Conditions conditions, Decorations decorations) {
         this.fade = properties.getFade();
+        this.fadeTable = FadeTable.of(this.fade);
         this.maxAlpha = properties.getMaxAlpha();
         this.transitionSpeed = properties.getTransitionSpeed();
         this.changeFog = properties.isChangeFog();
         this.fogColors = properties.getFogColors();
         this.shouldRotate = properties.isShouldRotate();
+        this.priority = properties.getPriority();
         this.weather = conditions.getWeathers().stream().map(Weather::toString).distinct().collect(Collectors.toList());
         this.biomes = conditions.getBiomes();
         this.worlds = conditions.getWorlds();
         this.heightRanges = conditions.getHeights();
         this.decorations = decorations;
+        this.compileConditions();
     }
 
     /**
-     * Calculates the alpha value for the current time and conditions and returns it.
+     * Calculates the alpha value for the current time and conditions.
+     * This is called once per client tick, so that fading does not depend on the frame rate.
      *
-     * @return The new alpha value.
+     * @param environment The state of the world captured for this tick.
      */
-    public final float getAlpha() {
+    public final void tick(EnvironmentSnapshot environment) {
+        this.prevAlpha = this.alpha;
         if (!fade.isAlwaysOn()) {
-            int currentTime = (int) Objects.requireNonNull(MinecraftClient.getInstance().world).getTimeOfDay() % 24000; // modulo so that it's bound to 24000
-            int duration = Utils.getTicksBetween(this.fade.getStartFadeIn(), this.fade.getEndFadeIn());
-            int phase = 0; // default not showing
-            if (this.fade.getStartFadeIn() < currentTime && this.fade.getEndFadeIn() >= currentTime) {
-                phase = 1; // fading out
-            } else if (this.fade.getEndFadeIn() < currentTime && this.fade.getStartFadeOut() >= currentTime) {
-                phase = 3; // fully faded in
-            } else if (this.fade.getStartFadeOut() < currentTime && this.fade.getEndFadeOut() >= currentTime) {
-                phase = 2; // fading in
-            }
-
-            float maxPossibleAlpha;
-            switch (phase) {
-                case 1:
-                    maxPossibleAlpha = 1f - (((float) (this.fade.getStartFadeIn() + duration - currentTime)) / duration);
-                    break;
-
-                case 2:
-                    maxPossibleAlpha = (float) (this.fade.getEndFadeOut() - currentTime) / duration;
-                    break;
-
-                case 3:
-                    maxPossibleAlpha = 1f;
-                    break;
-
-                default:
-                    maxPossibleAlpha = 0f;
-            }
-            maxPossibleAlpha *= maxAlpha;
-            if (checkBiomes() && checkHeights() && checkWeather()) { // check if environment is invalid
+            float maxPossibleAlpha = this.fadeTable.getMaxAlpha(environment.getTimeOfDay()) * maxAlpha;
+            if (checkBiomes(environment) && checkHeights(environment) && checkWeather(environment)) { // check if environment is invalid
                 if (alpha >= maxPossibleAlpha) {
                     alpha = maxPossibleAlpha;
                 } else {
@@ -157,119 +171,138 @@ public abstract class AbstractSkybox {
         } else {
             alpha = 1f;
         }
+    }
 
-        return alpha;
+    /**
+     * Estimates how soon this skybox will become visible, used to load the textures that are needed first before the others.
+     *
+     * @param environment The state of the world captured for the current tick.
+     * @return 0 if the skybox is visible now, otherwise the number of ticks until it starts fading in.
+     * Skyboxes that do not apply to the current world or biome are placed a full day later.
+     */
+    public int getTicksUntilVisible(EnvironmentSnapshot environment) {
+        if (this.alpha > 0f) {
+            return 0;
+        }
+        int ticks = this.getTicksUntilFadeIn(environment.getTimeOfDay());
+        if (!this.checkBiomes(environment)) {
+            ticks += 24000;
+        }
+        return ticks;
     }
 
     /**
-     * @return Whether the current biomes and dimensions are valid for this skybox.
+     * @param timeOfDay The time of day, between 0 and 23999.
+     * @return 0 if the fade schedule allows this skybox to be visible at the given time,
+     * otherwise the number of ticks until it starts fading in.
      */
-    protected boolean checkBiomes() {
-        MinecraftClient client = MinecraftClient.getInstance();
-        Objects.requireNonNull(client.world);
-        if (worlds.isEmpty()|| worlds.contains(client.world.getRegistryKey().getValue())) {
-            return biomes.isEmpty()|| biomes.contains(client.world.getRegistryManager().get(Registry.BIOME_KEY).getId(client.world.getBiome(client.player.getBlockPos())));
+    public int getTicksUntilFadeIn(int timeOfDay) {
+        if (this.fade.isAlwaysOn() || this.fadeTable.getMaxAlpha(timeOfDay) > 0f) {
+            return 0;
         }
+        return Math.floorMod(this.fade.getStartFadeIn() - timeOfDay, 24000);
+    }
+
+    public boolean isResident() {
+        return this.pendingTextures == 0;
+    }
+
+    /**
+     * Whether this skybox covers the whole sky at the given moment, so that nothing rendered before it can be seen.
+     * The {@link SkyboxManager} skips every skybox beneath the topmost opaque one, as well as the vanilla sky.
+     *
+     * @param tickDelta The current tick delta.
+     */
+    public boolean isOpaque(float tickDelta) {
         return false;
     }
 
+    /**
+     * Interpolates the alpha between the previous and the current tick.
+     *
+     * @param tickDelta The current tick delta.
+     * @return The alpha value to render the skybox with.
+     */
+    public final float getAlpha(float tickDelta) {
+        return MathHelper.lerp(tickDelta, this.prevAlpha, this.alpha);
+    }
+
+    /**
+     * @return Whether the current biomes and dimensions are valid for this skybox.
+     */
+    protected boolean checkBiomes(EnvironmentSnapshot environment) {
+        return this.compiledConditions.testBiomes(environment);
+    }
+
     /**
      * @return Whether the current heights are valid for this skybox.
      */
-    protected boolean checkHeights() {
-        double playerHeight = Objects.requireNonNull(MinecraftClient.getInstance().player).getY();
-        boolean inRange = false;
-        for (HeightEntry heightRange : this.heightRanges) {
-            inRange = heightRange.getMin() < playerHeight && heightRange.getMax() > playerHeight;
-            if (inRange) break;
-        }
-        return this.heightRanges.isEmpty() || inRange;
+    protected boolean checkHeights(EnvironmentSnapshot environment) {
+        return this.compiledConditions.testHeights(environment);
     }
 
     /**
      * @return Whether the current weather is valid for this skybox.
      */
-    protected boolean checkWeather() {
-        ClientWorld world = Objects.requireNonNull(MinecraftClient.getInstance().world);
-        ClientPlayerEntity player = Objects.requireNonNull(MinecraftClient.getInstance().player);
-        Biome.Precipitation precipitation = world.getBiome(player.getBlockPos()).getPrecipitation();
-        if (weather.size() > 0) {
-            if (weather.contains("thunder") && world.isThundering()) {
-                return true;
-            } else if (weather.contains("snow") && world.isRaining() && precipitation == Biome.Precipitation.SNOW) {
-                return true;
-            } else if (weather.contains("rain") && world.isRaining() && !world.isThundering()) {
-                return true;
-            } else return weather.contains("clear");
-        } else {
-            return true;
-        }
+    protected boolean checkWeather(EnvironmentSnapshot environment) {
+        return this.compiledConditions.testWeather(environment);
+    }
+
+    /**
+     * Compiles the conditions of this skybox into the form used when checking them.
+     * Must be called again if the conditions are changed after construction.
+     */
+    protected void compileConditions() {
+        this.compiledConditions = new CompiledConditions(this.worlds, this.biomes, this.weather, this.heightRanges);
     }
 
     public void renderDecorations(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta, BufferBuilder bufferBuilder, float alpha) {
         if (!SkyboxManager.getInstance().hasRenderedDecorations()) {
-            RenderSystem.enableTexture();
-            matrices.push();
-            ClientWorld world = MinecraftClient.getInstance().world;
-            assert world != null;
-            RenderSystem.enableTexture();
-            RenderSystem.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE, GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
-            matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(-90.0F));
-            matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(world.getSkyAngle(tickDelta) * 360.0F));
-            float r = 1.0F - world.getRainGradient(tickDelta);
-            // sun
-            RenderSystem.color4f(1.0F, 1.0F, 1.0F, alpha);
-            Matrix4f matrix4f2 = matrices.peek().getModel();
-            float s = 30.0F;
-            if (decorations.isSunEnabled()) {
-                worldRendererAccess.getTextureManager().bindTexture(this.decorations.getSunTexture());
-                bufferBuilder.begin(7, VertexFormats.POSITION_TEXTURE);
-                bufferBuilder.vertex(matrix4f2, -s, 100.0F, -s).texture(0.0F, 0.0F).next();
-                bufferBuilder.vertex(matrix4f2, s, 100.0F, -s).texture(1.0F, 0.0F).next();
-                bufferBuilder.vertex(matrix4f2, s, 100.0F, s).texture(1.0F, 1.0F).next();
-                bufferBuilder.vertex(matrix4f2, -s, 100.0F, s).texture(0.0F, 1.0F).next();
-                bufferBuilder.end();
-                BufferRenderer.draw(bufferBuilder);
-            }
-            // moon
-            s = 20.0F;
-            if (decorations.isMoonEnabled()) {
-                worldRendererAccess.getTextureManager().bindTexture(this.decorations.getMoonTexture());
-                int t = world.getMoonPhase();
-                int u = t % 4;
-                int v = t / 4 % 2;
-                float w = (float) (u) / 4.0F;
-                float o = (float) (v) / 2.0F;
-                float p = (float) (u + 1) / 4.0F;
-                float q = (float) (v + 1) / 2.0F;
-                bufferBuilder.begin(7, VertexFormats.POSITION_TEXTURE);
-                bufferBuilder.vertex(matrix4f2, -s, -100.0F, s).texture(p, q).next();
-                bufferBuilder.vertex(matrix4f2, s, -100.0F, s).texture(w, q).next();
-                bufferBuilder.vertex(matrix4f2, s, -100.0F, -s).texture(w, o).next();
-                bufferBuilder.vertex(matrix4f2, -s, -100.0F, -s).texture(p, o).next();
-                bufferBuilder.end();
-                BufferRenderer.draw(bufferBuilder);
-            }
-            // stars
-            if (decorations.isStarsEnabled()) {
-                RenderSystem.disableTexture();
-                float aa = world.method_23787(tickDelta) * r;
-                if (aa > 0.0F) {
-                    RenderSystem.color4f(aa, aa, aa, aa);
-                    worldRendererAccess.getStarsBuffer().bind();
-                    worldRendererAccess.getSkyVertexFormat().startDrawing(0L);
-                    worldRendererAccess.getStarsBuffer().draw(matrices.peek().getModel(), 7);
-                    VertexBuffer.unbind();
-                    worldRendererAccess.getSkyVertexFormat().endDrawing();
+            RenderStateTracker renderState = SkyboxManager.getInstance().getRenderState();
+            SkyRenderBackend backend = renderState.getBackend();
+            renderState.enableTexture();
+            renderState.disableFog();
+            renderState.disableAlphaTest();
+            renderState.depthMask(false);
+            renderState.enableBlend();
+            // with every decoration hidden there is nothing to rotate into place
+            if (decorations.isSunEnabled() || decorations.isMoonEnabled() || decorations.isStarsEnabled()) {
+                DECORATION_MATRICES.save(matrices);
+                ClientWorld world = MinecraftClient.getInstance().world;
+                assert world != null;
+                renderState.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE, GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
+                MatrixStack.Entry entry = matrices.peek();
+                entry.getModel().multiply(DECORATION_MODEL);
+                entry.getNormal().multiply(DECORATION_NORMAL);
+                DECORATION_SKY_ANGLE.apply(matrices, world.getSkyAngle(tickDelta));
+                float r = 1.0F - world.getRainGradient(tickDelta);
+                // sun
+                backend.color(1.0F, 1.0F, 1.0F, alpha);
+                Matrix4f matrix4f2 = matrices.peek().getModel();
+                if (decorations.isSunEnabled()) {
+                    backend.bindTexture(this.decorations.getSunTexture());
+                    backend.draw(SkyMesh.SUN, 0, matrix4f2);
+                }
+                // moon
+                if (decorations.isMoonEnabled()) {
+                    backend.bindTexture(this.decorations.getMoonTexture());
+                    backend.draw(SkyMesh.MOON, world.getMoonPhase(), matrix4f2);
                 }
+                // stars
+                if (decorations.isStarsEnabled()) {
+                    renderState.disableTexture();
+                    float aa = world.method_23787(tickDelta) * r;
+                    if (aa > 0.0F) {
+                        backend.color(aa, aa, aa, aa);
+                        backend.draw(SkyMesh.STARS, 0, matrix4f2);
+                    }
+                }
+                backend.color(1.0F, 1.0F, 1.0F, 1.0F);
+                DECORATION_MATRICES.restore(matrices);
             }
-            RenderSystem.color4f(1.0F, 1.0F, 1.0F, 1.0F);
-            RenderSystem.disableBlend();
-            RenderSystem.enableAlphaTest();
-            RenderSystem.enableFog();
-            matrices.multiply(Vector3f.NEGATIVE_X.getDegreesQuaternion(world.getSkyAngle(tickDelta) * 360.0F));
-            matrices.multiply(Vector3f.NEGATIVE_Y.getDegreesQuaternion(-90.0F));
-            matrices.pop();
+            renderState.disableBlend();
+            renderState.enableAlphaTest();
+            renderState.enableFog();
         }
     }
 
@@ -294,11 +327,14 @@ public abstract class AbstractSkybox {
         } catch (NullPointerException e) {
             throw new JsonParseException("Could not get a required field for skybox of type " + getType());
         }
+        this.fadeTable = FadeTable.of(this.fade);
         // alpha changing
         maxAlpha = jsonObjectWrapper.getOptionalFloat("maxAlpha", 1f);
         transitionSpeed = jsonObjectWrapper.getOptionalFloat("transitionSpeed", 1f);
         // rotation
         shouldRotate = jsonObjectWrapper.getOptionalBoolean("shouldRotate", false);
+        // layering
+        priority = jsonObjectWrapper.getOptionalInt("priority", 0);
         // decorations
         decorations = Decorations.DEFAULT;
         // fog
@@ -334,6 +370,107 @@ public abstract class AbstractSkybox {
                 this.heightRanges.add(new HeightEntry(low, high));
             }
         }
+        this.compileConditions();
+    }
+
+    /**
+     * Passes every texture this skybox may bind to the consumer, so that they can be loaded while reloading
+     * instead of the first time they are rendered. Override and extend this if your skybox has textures of its own.
+     * The vanilla sun and moon are left out, as the world renderer loads those itself.
+     */
+    public void collectTextures(Consumer<Identifier> consumer) {
+        if (this.decorations.isSunEnabled() && !this.decorations.getSunTexture().equals(Decorations.SUN)) {
+            consumer.accept(this.decorations.getSunTexture());
+        }
+        if (this.decorations.isMoonEnabled() && !this.decorations.getMoonTexture().equals(Decorations.MOON_PHASES)) {
+            consumer.accept(this.decorations.getMoonTexture());
+        }
+    }
+
+    /**
+     * Whether {@link #writeCache(DataOutput)} and {@link #readCache(DataInput)} store every option of this skybox.
+     * Override this together with those methods if your skybox has options of its own.
+     *
+     * @return Whether decoded skyboxes of this class may be stored in the skybox cache.
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Writes the options of this skybox to the skybox cache. Override and extend this if your skybox has options of its own.
+     */
+    public void writeCache(DataOutput output) throws IOException {
+        output.writeInt(this.fade.getStartFadeIn());
+        output.writeInt(this.fade.getEndFadeIn());
+        output.writeInt(this.fade.getStartFadeOut());
+        output.writeInt(this.fade.getEndFadeOut());
+        output.writeBoolean(this.fade.isAlwaysOn());
+        output.writeFloat(this.maxAlpha);
+        output.writeFloat(this.transitionSpeed);
+        output.writeBoolean(this.changeFog);
+        output.writeFloat(this.fogColors.getRed());
+        output.writeFloat(this.fogColors.getBlue());
+        output.writeFloat(this.fogColors.getGreen());
+        output.writeFloat(this.fogColors.getAlpha());
+        output.writeBoolean(this.shouldRotate);
+        output.writeInt(this.priority);
+        output.writeInt(this.weather.size());
+        for (String weather : this.weather) {
+            output.writeUTF(weather);
+        }
+        this.writeIds(output, this.biomes);
+        this.writeIds(output, this.worlds);
+        output.writeInt(this.heightRanges.size());
+        for (HeightEntry heightRange : this.heightRanges) {
+            output.writeFloat(heightRange.getMin());
+            output.writeFloat(heightRange.getMax());
+        }
+        SkyboxCache.writeIdentifier(output, this.decorations.getSunTexture());
+        SkyboxCache.writeIdentifier(output, this.decorations.getMoonTexture());
+        output.writeBoolean(this.decorations.isSunEnabled());
+        output.writeBoolean(this.decorations.isMoonEnabled());
+        output.writeBoolean(this.decorations.isStarsEnabled());
+    }
+
+    /**
+     * Reads the options of this skybox from the skybox cache, in the order they were written by {@link #writeCache(DataOutput)}.
+     */
+    public void readCache(DataInput input) throws IOException {
+        this.fade = new Fade(input.readInt(), input.readInt(), input.readInt(), input.readInt(), input.readBoolean());
+        this.fadeTable = FadeTable.of(this.fade);
+        this.maxAlpha = input.readFloat();
+        this.transitionSpeed = input.readFloat();
+        this.changeFog = input.readBoolean();
+        this.fogColors = new RGBA(input.readFloat(), input.readFloat(), input.readFloat(), input.readFloat());
+        this.shouldRotate = input.readBoolean();
+        this.priority = input.readInt();
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            this.weather.add(input.readUTF());
+        }
+        this.readIds(input, this.biomes);
+        this.readIds(input, this.worlds);
+        size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            this.heightRanges.add(new HeightEntry(input.readFloat(), input.readFloat()));
+        }
+        this.decorations = new Decorations(SkyboxCache.readIdentifier(input), SkyboxCache.readIdentifier(input), input.readBoolean(), input.readBoolean(), input.readBoolean());
+        this.compileConditions();
+    }
+
+    private void writeIds(DataOutput output, List<Identifier> list) throws IOException {
+        output.writeInt(list.size());
+        for (Identifier id : list) {
+            SkyboxCache.writeIdentifier(output, id);
+        }
+    }
+
+    private void readIds(DataInput input, List<Identifier> list) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            list.add(SkyboxCache.readIdentifier(input));
+        }
     }
 
     private void processIds(JsonElement element, List<Identifier> list) {
@@ -372,6 +509,10 @@ public abstract class AbstractSkybox {
         return this.shouldRotate;
     }
 
+    public int getPriority() {
+        return this.priority;
+    }
+
     public Decorations getDecorations() {
         return this.decorations;
     }
@@ -392,6 +533,10 @@ public abstract class AbstractSkybox {
         return this.heightRanges;
     }
 
+    public CompiledConditions getCompiledConditions() {
+        return this.compiledConditions;
+    }
+
     public DefaultProperties getDefaultProperties() {
         return DefaultProperties.ofSkybox(this);
     }
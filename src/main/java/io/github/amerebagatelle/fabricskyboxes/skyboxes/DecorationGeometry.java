@@ -0,0 +1,87 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes;
+
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * The geometry of the sun and the moon, uploaded once and shared by every skybox.
+ * The moon has a buffer for each of its eight phases, each mapped onto its part of the moon phases texture.
+ */
+public final class DecorationGeometry {
+    public static final int MOON_PHASES = 8;
+    private static final VertexFormat FORMAT = VertexFormats.POSITION_TEXTURE;
+    private static VertexBuffer sun;
+    private static VertexBuffer[] moonPhases;
+
+    private DecorationGeometry() {
+    }
+
+    /**
+     * Draws the sun with the currently bound texture and color. Must be called on the render thread.
+     *
+     * @param matrix The matrix including the sky angle rotation.
+     */
+    public static void drawSun(Matrix4f matrix) {
+        if (sun == null) {
+            build();
+        }
+        draw(sun, matrix);
+    }
+
+    /**
+     * Draws the moon in the given phase with the currently bound texture and color. Must be called on the render thread.
+     *
+     * @param matrix The matrix including the sky angle rotation.
+     */
+    public static void drawMoon(int phase, Matrix4f matrix) {
+        if (sun == null) {
+            build();
+        }
+        draw(moonPhases[Math.floorMod(phase, MOON_PHASES)], matrix);
+    }
+
+    private static void draw(VertexBuffer buffer, Matrix4f matrix) {
+        buffer.bind();
+        FORMAT.startDrawing(0L);
+        buffer.draw(matrix, 7);
+        VertexBuffer.unbind();
+        FORMAT.endDrawing();
+    }
+
+    private static void build() {
+        BufferBuilder bufferBuilder = Tessellator.getInstance().getBuffer();
+
+        float s = 30.0F;
+        bufferBuilder.begin(7, FORMAT);
+        bufferBuilder.vertex(-s, 100.0F, -s).texture(0.0F, 0.0F).next();
+        bufferBuilder.vertex(s, 100.0F, -s).texture(1.0F, 0.0F).next();
+        bufferBuilder.vertex(s, 100.0F, s).texture(1.0F, 1.0F).next();
+        bufferBuilder.vertex(-s, 100.0F, s).texture(0.0F, 1.0F).next();
+        bufferBuilder.end();
+        sun = new VertexBuffer(FORMAT);
+        sun.upload(bufferBuilder);
+
+        s = 20.0F;
+        moonPhases = new VertexBuffer[MOON_PHASES];
+        for (int t = 0; t < MOON_PHASES; t++) {
+            int u = t % 4;
+            int v = t / 4 % 2;
+            float w = (float) (u) / 4.0F;
+            float o = (float) (v) / 2.0F;
+            float p = (float) (u + 1) / 4.0F;
+            float q = (float) (v + 1) / 2.0F;
+            bufferBuilder.begin(7, FORMAT);
+            bufferBuilder.vertex(-s, -100.0F, s).texture(p, q).next();
+            bufferBuilder.vertex(s, -100.0F, s).texture(w, q).next();
+            bufferBuilder.vertex(s, -100.0F, -s).texture(w, o).next();
+            bufferBuilder.vertex(-s, -100.0F, -s).texture(p, o).next();
+            bufferBuilder.end();
+            moonPhases[t] = new VertexBuffer(FORMAT);
+            moonPhases[t].upload(bufferBuilder);
+        }
+    }
+}
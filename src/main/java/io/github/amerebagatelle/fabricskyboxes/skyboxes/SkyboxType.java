@@ -0,0 +1,60 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import com.mojang.serialization.Codec;
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * A kind of skybox that can be loaded from json, registered with
+ * {@link io.github.amerebagatelle.fabricskyboxes.SkyboxManager#registerSkyboxType(SkyboxType)}.
+ *
+ * @param <T> The class of the skyboxes created by this type.
+ */
+public class SkyboxType<T extends AbstractSkybox> {
+    private final Identifier id;
+    private final Supplier<T> factory;
+    private final IntFunction<Codec<? extends AbstractSkybox>> codecs;
+
+    /**
+     * @param id      The identifier used in the {@code type} key of the skybox json.
+     * @param factory Creates an empty skybox, used for schema version 1 and the skybox cache.
+     * @param codecs  Gives the codec used to decode the skybox for a schema version, or null if it is unsupported.
+     */
+    public SkyboxType(Identifier id, Supplier<T> factory, IntFunction<Codec<? extends AbstractSkybox>> codecs) {
+        this.id = id;
+        this.factory = factory;
+        this.codecs = codecs;
+    }
+
+    /**
+     * Creates a type from a skybox factory, using {@link AbstractSkybox#getType()} and
+     * {@link AbstractSkybox#getCodec(int)} of a single skybox created when registering.
+     */
+    public static <T extends AbstractSkybox> SkyboxType<T> of(Supplier<T> factory) {
+        T prototype = factory.get();
+        return new SkyboxType<>(parseId(prototype.getType()), factory, prototype::getCodec);
+    }
+
+    /**
+     * Types without a namespace, such as {@code monocolor}, belong to fabricskyboxes.
+     */
+    public static Identifier parseId(String type) {
+        return type.indexOf(':') < 0 ? new Identifier(FabricSkyBoxesClient.MODID, type) : new Identifier(type);
+    }
+
+    public Identifier getId() {
+        return this.id;
+    }
+
+    public T create() {
+        return this.factory.get();
+    }
+
+    public Codec<? extends AbstractSkybox> getCodec(int schemaVersion) {
+        return this.codecs.apply(schemaVersion);
+    }
+}
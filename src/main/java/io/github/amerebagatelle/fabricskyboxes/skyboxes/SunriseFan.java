@@ -0,0 +1,112 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes;
+
+import io.github.amerebagatelle.fabricskyboxes.FabricSkyBoxesClient;
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyMesh;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.util.RenderStateTracker;
+
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Matrix4f;
+import net.minecraft.util.math.Quaternion;
+
+/**
+ * The sunrise and sunset fan, uploaded once and shared by every skybox that renders it.
+ *
+ * <p>The color changes every frame and fades out towards the rim, so instead of vertex colors the fan samples a
+ * two pixel gradient texture, from opaque at the center to transparent at the rim, which is tinted by the current
+ * color. The depth of the fan is scaled by the sunrise alpha, as in vanilla, but only in the model matrix: scaling
+ * the stack would also scale the normals by the inverse of the alpha, which is infinite once the alpha reaches zero.
+ * The scales are built once for every 1 / {@value #DEPTH_STEPS} of alpha, so that drawing the fan does not allocate.</p>
+ */
+public final class SunriseFan {
+    public static final Identifier GRADIENT = new Identifier(FabricSkyBoxesClient.MODID, "textures/environment/sunrise_gradient.png");
+    private static final VertexFormat FORMAT = VertexFormats.POSITION_TEXTURE;
+    private static final Matrix4f[] MODELS = new Matrix4f[2];
+    private static final int DEPTH_STEPS = 255;
+    private static final Matrix4f[] DEPTH_SCALES = new Matrix4f[DEPTH_STEPS + 1];
+    private static final Matrix4f FAN_MODEL = new Matrix4f(Quaternion.IDENTITY);
+    private static VertexBuffer fan;
+
+    static {
+        // the fan faces the sun while it rises, and is turned around while it sets
+        for (int i = 0; i < 2; i++) {
+            Quaternion quaternion = Vector3f.POSITIVE_X.getDegreesQuaternion(90.0F);
+            quaternion.hamiltonProduct(Vector3f.POSITIVE_Z.getDegreesQuaternion(i * 180.0F));
+            quaternion.hamiltonProduct(Vector3f.POSITIVE_Z.getDegreesQuaternion(90.0F));
+            MODELS[i] = new Matrix4f(quaternion);
+        }
+        for (int i = 0; i <= DEPTH_STEPS; i++) {
+            DEPTH_SCALES[i] = Matrix4f.scale(1.0F, 1.0F, (float) i / DEPTH_STEPS);
+        }
+    }
+
+    private SunriseFan() {
+    }
+
+    /**
+     * Renders the fan through the render backend of the {@link SkyboxManager}. Nothing is drawn once the fan has
+     * faded out.
+     *
+     * @param skyColor The color returned by {@code SkyProperties.getSkyColor}, must not be null.
+     * @param setting  Whether the sun is setting rather than rising.
+     */
+    public static void draw(MatrixStack matrices, float[] skyColor, boolean setting) {
+        if (skyColor[3] <= 0.0F) {
+            return;
+        }
+        FAN_MODEL.loadIdentity();
+        FAN_MODEL.multiply(matrices.peek().getModel());
+        FAN_MODEL.multiply(MODELS[setting ? 1 : 0]);
+        FAN_MODEL.multiply(DEPTH_SCALES[MathHelper.clamp(Math.round(skyColor[3] * DEPTH_STEPS), 0, DEPTH_STEPS)]);
+
+        RenderStateTracker renderState = SkyboxManager.getInstance().getRenderState();
+        SkyRenderBackend backend = renderState.getBackend();
+        renderState.enableTexture();
+        backend.bindTexture(GRADIENT);
+        backend.color(skyColor[0], skyColor[1], skyColor[2], skyColor[3]);
+        backend.draw(SkyMesh.SUNRISE_FAN, 0, FAN_MODEL);
+        backend.color(1.0F, 1.0F, 1.0F, 1.0F);
+        renderState.disableTexture();
+    }
+
+    /**
+     * Draws the fan geometry with the currently bound texture and color. Must be called on the render thread.
+     */
+    public static void drawFan(Matrix4f matrix) {
+        if (fan == null) {
+            build();
+        }
+        fan.bind();
+        FORMAT.startDrawing(0L);
+        fan.draw(matrix, 6);
+        VertexBuffer.unbind();
+        FORMAT.endDrawing();
+    }
+
+    private static void build() {
+        // the centers of the two pixels of the gradient, so that the alpha falls off linearly from the center to the rim
+        float center = 0.25F;
+        float rim = 0.75F;
+        BufferBuilder bufferBuilder = Tessellator.getInstance().getBuffer();
+        bufferBuilder.begin(6, FORMAT);
+        bufferBuilder.vertex(0.0F, 100.0F, 0.0F).texture(center, 0.5F).next();
+        for (int n = 0; n <= 16; ++n) {
+            float o = (float) n * 6.2831855F / 16.0F;
+            float p = MathHelper.sin(o);
+            float q = MathHelper.cos(o);
+            bufferBuilder.vertex(p * 120.0F, q * 120.0F, -q * 40.0F).texture(rim, 0.5F).next();
+        }
+        bufferBuilder.end();
+        fan = new VertexBuffer(FORMAT);
+        fan.upload(bufferBuilder);
+    }
+}
@@ -1,6 +1,11 @@
 package io.github.amerebagatelle.fabricskyboxes.skyboxes.textured;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
@@ -13,6 +18,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.Identifier;
 
 public class AnimatedSquareTexturedSkybox extends SquareTexturedSkybox {
     public static Codec<AnimatedSquareTexturedSkybox> CODEC = RecordCodecBuilder.create(instance -> instance.group(
@@ -35,6 +41,10 @@ public class AnimatedSquareTexturedSkybox extends SquareTexturedSkybox {
     public AnimatedSquareTexturedSkybox(DefaultProperties properties, Conditions conditions, Decorations decorations, boolean blend, List<Textures> animationTextures, float fps) {
         super(properties, conditions, decorations, blend, null);
         this.animationTextures = animationTextures;
+        this.setFps(fps);
+    }
+
+    private void setFps(float fps) {
         this.fps = fps;
         if (fps > 0 && fps <= 360) {
             this.frameTimeMillis = (long) (1000F / fps);
@@ -43,6 +53,14 @@ public class AnimatedSquareTexturedSkybox extends SquareTexturedSkybox {
         }
     }
 
+    /**
+     * The faces change every frame, so animated skyboxes are never stitched.
+     */
+    @Override
+    public boolean isStitched() {
+        return false;
+    }
+
     @Override
     public void renderSkybox(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
         if (this.lastTime == 0L) this.lastTime = System.currentTimeMillis();
@@ -80,6 +98,42 @@ public class AnimatedSquareTexturedSkybox extends SquareTexturedSkybox {
         throw new UnsupportedOperationException("Animated Square Textured Skyboxes only support having a schema version greater than or equal to 2");
     }
 
+    @Override
+    public void collectSkyTextures(Consumer<Identifier> consumer) {
+        super.collectSkyTextures(consumer);
+        for (Textures textures : this.animationTextures) {
+            for (int i = 0; i < SkyboxCube.FACES; ++i) {
+                consumer.accept(textures.getFace(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return this.getClass() == AnimatedSquareTexturedSkybox.class;
+    }
+
+    @Override
+    public void writeCache(DataOutput output) throws IOException {
+        super.writeCache(output);
+        output.writeInt(this.animationTextures.size());
+        for (Textures textures : this.animationTextures) {
+            writeTextures(output, textures);
+        }
+        output.writeFloat(this.fps);
+    }
+
+    @Override
+    public void readCache(DataInput input) throws IOException {
+        super.readCache(input);
+        int size = input.readInt();
+        this.animationTextures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            this.animationTextures.add(readTextures(input));
+        }
+        this.setFps(input.readFloat());
+    }
+
     public List<Textures> getAnimationTextures() {
         return this.animationTextures;
     }
@@ -0,0 +1,169 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes.textured;
+
+import io.github.amerebagatelle.fabricskyboxes.render.SkyFrustum;
+
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.client.util.math.Vector4f;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * The geometry of a square skybox, uploaded once and shared by every square skybox.
+ * Each face is its own buffer, as each face is drawn with a different texture, and a
+ * separate buffer holds the whole cube mapped onto a stitched atlas.
+ *
+ * <p>Faces are numbered as follows: 0 = bottom, 1 = north, 2 = south, 3 = top, 4 = east, 5 = west.</p>
+ */
+public final class SkyboxCube {
+    public static final int FACES = 6;
+    public static final int ATLAS_COLUMNS = 3;
+    public static final int ATLAS_ROWS = 2;
+    public static final int ALL_FACES = (1 << FACES) - 1;
+    private static final VertexFormat FORMAT = VertexFormats.POSITION_TEXTURE;
+    private static final float SIZE = 100.0F;
+    /**
+     * The corners of each face, as indices into the corners of the cube: bit 0 is set for +x, bit 1 for +y and bit 2 for +z.
+     */
+    private static final int[][] FACE_CORNERS = new int[FACES][4];
+    private static final int[] cornerOutcodes = new int[8];
+    private static VertexBuffer[] faces;
+    private static VertexBuffer atlas;
+
+    static {
+        MatrixStack matrices = new MatrixStack();
+        Vector4f corner = new Vector4f();
+        for (int face = 0; face < FACES; face++) {
+            matrices.push();
+            applyFaceRotation(matrices, face);
+            for (int i = 0; i < 4; i++) {
+                corner.set(i < 2 ? -1.0F : 1.0F, -1.0F, i == 1 || i == 2 ? 1.0F : -1.0F, 1.0F);
+                corner.transform(matrices.peek().getModel());
+                FACE_CORNERS[face][i] = (corner.getX() > 0.0F ? 1 : 0) | (corner.getY() > 0.0F ? 2 : 0) | (corner.getZ() > 0.0F ? 4 : 0);
+            }
+            matrices.pop();
+        }
+    }
+
+    private SkyboxCube() {
+    }
+
+    /**
+     * Tests the faces of the cube against the view. With a normal field of view at least one face is entirely outside of it.
+     *
+     * @param matrix The matrix the cube is drawn with, including the rotation of the skybox.
+     * @return A bit for each face that may be visible, or {@link #ALL_FACES} if the projection is not known.
+     */
+    public static int getVisibleFaces(SkyFrustum frustum, Matrix4f matrix) {
+        if (!frustum.isKnown()) {
+            return ALL_FACES;
+        }
+        for (int i = 0; i < cornerOutcodes.length; i++) {
+            cornerOutcodes[i] = frustum.getOutcode(matrix, (i & 1) != 0 ? SIZE : -SIZE, (i & 2) != 0 ? SIZE : -SIZE, (i & 4) != 0 ? SIZE : -SIZE);
+        }
+        int visibleFaces = 0;
+        for (int face = 0; face < FACES; face++) {
+            int[] corners = FACE_CORNERS[face];
+            // a face is hidden when all of its corners lie outside of the same plane
+            if ((cornerOutcodes[corners[0]] & cornerOutcodes[corners[1]] & cornerOutcodes[corners[2]] & cornerOutcodes[corners[3]]) == SkyFrustum.INSIDE) {
+                visibleFaces |= 1 << face;
+            }
+        }
+        return visibleFaces;
+    }
+
+    /**
+     * Draws a face of the cube with the currently bound texture and color. Must be called on the render thread.
+     */
+    public static void drawFace(int face, Matrix4f matrix) {
+        if (faces == null) {
+            build();
+        }
+        faces[face].bind();
+        FORMAT.startDrawing(0L);
+        faces[face].draw(matrix, 7);
+        VertexBuffer.unbind();
+        FORMAT.endDrawing();
+    }
+
+    /**
+     * Draws the whole cube with the currently bound stitched atlas and color. Must be called on the render thread.
+     */
+    public static void drawAtlas(Matrix4f matrix) {
+        if (faces == null) {
+            build();
+        }
+        atlas.bind();
+        FORMAT.startDrawing(0L);
+        atlas.draw(matrix, 7);
+        VertexBuffer.unbind();
+        FORMAT.endDrawing();
+    }
+
+    /**
+     * Rotates the bottom face of the cube onto the given face.
+     */
+    public static void applyFaceRotation(MatrixStack matrices, int face) {
+        switch (face) {
+            case 1:
+                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(90.0F));
+                break;
+            case 2:
+                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(-90.0F));
+                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(180.0F));
+                break;
+            case 3:
+                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(180.0F));
+                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(90.0F));
+                break;
+            case 4:
+                matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(90.0F));
+                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(-90.0F));
+                break;
+            case 5:
+                matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(-90.0F));
+                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(90.0F));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void build() {
+        faces = new VertexBuffer[FACES];
+        BufferBuilder bufferBuilder = Tessellator.getInstance().getBuffer();
+        MatrixStack matrices = new MatrixStack();
+        for (int i = 0; i < FACES; ++i) {
+            bufferBuilder.begin(7, FORMAT);
+            buildFace(bufferBuilder, matrices, i, 0.0F, 0.0F, 1.0F, 1.0F);
+            bufferBuilder.end();
+            faces[i] = new VertexBuffer(FORMAT);
+            faces[i].upload(bufferBuilder);
+        }
+
+        bufferBuilder.begin(7, FORMAT);
+        for (int i = 0; i < FACES; ++i) {
+            float minU = (float) (i % ATLAS_COLUMNS) / ATLAS_COLUMNS;
+            float minV = (float) (i / ATLAS_COLUMNS) / ATLAS_ROWS;
+            buildFace(bufferBuilder, matrices, i, minU, minV, minU + 1.0F / ATLAS_COLUMNS, minV + 1.0F / ATLAS_ROWS);
+        }
+        bufferBuilder.end();
+        atlas = new VertexBuffer(FORMAT);
+        atlas.upload(bufferBuilder);
+    }
+
+    private static void buildFace(BufferBuilder bufferBuilder, MatrixStack matrices, int face, float minU, float minV, float maxU, float maxV) {
+        matrices.push();
+        applyFaceRotation(matrices, face);
+        Matrix4f matrix4f = matrices.peek().getModel();
+        bufferBuilder.vertex(matrix4f, -SIZE, -SIZE, -SIZE).texture(minU, minV).next();
+        bufferBuilder.vertex(matrix4f, -SIZE, -SIZE, SIZE).texture(minU, maxV).next();
+        bufferBuilder.vertex(matrix4f, SIZE, -SIZE, SIZE).texture(maxU, maxV).next();
+        bufferBuilder.vertex(matrix4f, SIZE, -SIZE, -SIZE).texture(maxU, minV).next();
+        matrices.pop();
+    }
+}
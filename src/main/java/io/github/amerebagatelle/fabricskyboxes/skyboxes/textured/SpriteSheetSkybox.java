@@ -0,0 +1,161 @@
+package io.github.amerebagatelle.fabricskyboxes.skyboxes.textured;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
+import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyMesh;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
+import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Conditions;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Decorations;
+import io.github.amerebagatelle.fabricskyboxes.util.object.DefaultProperties;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Textures;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Matrix4f;
+
+/**
+ * An animated square skybox where every face is a sprite sheet holding all frames of the animation.
+ * Frames are laid out left to right, then top to bottom, and are selected by offsetting the texture
+ * coordinates, the same way the moon phases are, so the six textures are bound once per frame and never swapped.
+ */
+public class SpriteSheetSkybox extends TexturedSkybox {
+    public static Codec<SpriteSheetSkybox> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            DefaultProperties.CODEC.fieldOf("properties").forGetter(AbstractSkybox::getDefaultProperties),
+            Conditions.CODEC.optionalFieldOf("conditions", Conditions.NO_CONDITIONS).forGetter(AbstractSkybox::getConditions),
+            Decorations.CODEC.optionalFieldOf("decorations", Decorations.DEFAULT).forGetter(AbstractSkybox::getDecorations),
+            Codec.BOOL.fieldOf("blend").forGetter(TexturedSkybox::isBlend),
+            Textures.CODEC.fieldOf("textures").forGetter(SpriteSheetSkybox::getTextures),
+            Codec.intRange(1, Integer.MAX_VALUE).fieldOf("columns").forGetter(SpriteSheetSkybox::getColumns),
+            Codec.intRange(1, Integer.MAX_VALUE).fieldOf("rows").forGetter(SpriteSheetSkybox::getRows),
+            Codec.intRange(0, Integer.MAX_VALUE).optionalFieldOf("frames", 0).forGetter(SpriteSheetSkybox::getFrames),
+            Codec.FLOAT.fieldOf("fps").forGetter(SpriteSheetSkybox::getFps)
+    ).apply(instance, SpriteSheetSkybox::new));
+    public Textures textures;
+    private int columns;
+    private int rows;
+    private int frames;
+    private float fps;
+    private long frameTimeMillis;
+
+    public SpriteSheetSkybox() {
+    }
+
+    public SpriteSheetSkybox(DefaultProperties properties, Conditions conditions, Decorations decorations, boolean blend, Textures textures, int columns, int rows, int frames, float fps) {
+        super(properties, conditions, decorations, blend);
+        this.textures = textures;
+        this.setLayout(columns, rows, frames, fps);
+    }
+
+    private void setLayout(int columns, int rows, int frames, float fps) {
+        this.columns = columns;
+        this.rows = rows;
+        this.frames = frames;
+        this.fps = fps;
+        if (fps > 0 && fps <= 360) {
+            this.frameTimeMillis = (long) (1000F / fps);
+        } else {
+            this.frameTimeMillis = 16L;
+        }
+    }
+
+    @Override
+    public Codec<? extends AbstractSkybox> getCodec(int schemaVersion) {
+        if (schemaVersion == 2) {
+            return CODEC;
+        }
+        return null;
+    }
+
+    @Override
+    public void renderSkybox(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
+        SkyRenderBackend backend = SkyboxManager.getInstance().getRenderBackend();
+        Matrix4f matrix4f = matrices.peek().getModel();
+
+        int frameCount = this.frames > 0 ? Math.min(this.frames, this.columns * this.rows) : this.columns * this.rows;
+        int frame = (int) ((System.currentTimeMillis() / this.frameTimeMillis) % frameCount);
+
+        // Scale the face texture coordinates down to a single frame and move them onto the current one
+        backend.setTextureTransform(1.0F / this.columns, 1.0F / this.rows, (float) (frame % this.columns) / this.columns, (float) (frame / this.columns) / this.rows);
+
+        backend.color(1.0F, 1.0F, 1.0F, this.getAlpha(tickDelta));
+        int visibleFaces = SkyboxCube.getVisibleFaces(SkyboxManager.getInstance().getFrustum(), matrix4f);
+        for (int i = 0; i < SkyboxCube.FACES; ++i) {
+            if ((visibleFaces & (1 << i)) != 0) {
+                backend.bindTexture(this.textures.getFace(i));
+                backend.draw(SkyMesh.CUBE_FACE, i, matrix4f);
+            }
+        }
+        backend.color(1.0F, 1.0F, 1.0F, 1.0F);
+
+        backend.resetTextureTransform();
+    }
+
+    @Override
+    public String getType() {
+        return "sprite-sheet-square-textured";
+    }
+
+    @Override
+    public void parseJson(JsonObjectWrapper jsonObjectWrapper) {
+        throw new UnsupportedOperationException("Sprite Sheet Square Textured Skyboxes only support having a schema version greater than or equal to 2");
+    }
+
+    @Override
+    public void collectSkyTextures(Consumer<Identifier> consumer) {
+        super.collectSkyTextures(consumer);
+        for (int i = 0; i < SkyboxCube.FACES; ++i) {
+            consumer.accept(this.textures.getFace(i));
+        }
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return this.getClass() == SpriteSheetSkybox.class;
+    }
+
+    @Override
+    public void writeCache(DataOutput output) throws IOException {
+        super.writeCache(output);
+        SquareTexturedSkybox.writeTextures(output, this.textures);
+        output.writeInt(this.columns);
+        output.writeInt(this.rows);
+        output.writeInt(this.frames);
+        output.writeFloat(this.fps);
+    }
+
+    @Override
+    public void readCache(DataInput input) throws IOException {
+        super.readCache(input);
+        this.textures = SquareTexturedSkybox.readTextures(input);
+        this.setLayout(input.readInt(), input.readInt(), input.readInt(), input.readFloat());
+    }
+
+    public Textures getTextures() {
+        return this.textures;
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getFrames() {
+        return this.frames;
+    }
+
+    public float getFps() {
+        return this.fps;
+    }
+}
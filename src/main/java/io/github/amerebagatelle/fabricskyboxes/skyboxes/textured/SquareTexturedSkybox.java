@@ -1,6 +1,15 @@
 package io.github.amerebagatelle.fabricskyboxes.skyboxes.textured;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
 import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyMesh;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.resource.SkyboxCache;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
 import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
 import io.github.amerebagatelle.fabricskyboxes.util.object.Conditions;
@@ -11,12 +20,8 @@ import com.google.gson.JsonParseException;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
-import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.Tessellator;
-import net.minecraft.client.render.VertexFormats;
-import net.minecraft.client.texture.TextureManager;
 import net.minecraft.client.util.math.MatrixStack;
-import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Matrix4f;
 
 public class SquareTexturedSkybox extends TexturedSkybox {
@@ -25,16 +30,31 @@ public class SquareTexturedSkybox extends TexturedSkybox {
             Conditions.CODEC.optionalFieldOf("conditions", Conditions.NO_CONDITIONS).forGetter(AbstractSkybox::getConditions),
             Decorations.CODEC.optionalFieldOf("decorations", Decorations.DEFAULT).forGetter(AbstractSkybox::getDecorations),
             Codec.BOOL.fieldOf("blend").forGetter(TexturedSkybox::isBlend),
-            Textures.CODEC.fieldOf("textures").forGetter(SquareTexturedSkybox::getTextures)
+            Textures.CODEC.fieldOf("textures").forGetter(SquareTexturedSkybox::getTextures),
+            Codec.BOOL.optionalFieldOf("stitch", false).forGetter(SquareTexturedSkybox::isStitched)
     ).apply(instance, SquareTexturedSkybox::new));
     public Textures textures;
+    protected boolean stitched;
+    /**
+     * The stitched texture of all faces, set when reloading if {@link #stitched} is set and stitching succeeded.
+     */
+    protected transient Identifier atlasTexture;
+    /**
+     * Set when reloading if {@link #stitched} is set but the faces could not be stitched, so that they are loaded to be drawn one by one.
+     */
+    protected transient boolean stitchFailed;
 
     public SquareTexturedSkybox() {
     }
 
     public SquareTexturedSkybox(DefaultProperties properties, Conditions conditions, Decorations decorations, boolean blend, Textures textures) {
+        this(properties, conditions, decorations, blend, textures, false);
+    }
+
+    public SquareTexturedSkybox(DefaultProperties properties, Conditions conditions, Decorations decorations, boolean blend, Textures textures, boolean stitched) {
         super(properties, conditions, decorations, blend);
         this.textures = textures;
+        this.stitched = stitched;
     }
 
     @Override
@@ -47,59 +67,23 @@ public class SquareTexturedSkybox extends TexturedSkybox {
 
     @Override
     public void renderSkybox(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
-        Tessellator tessellator = Tessellator.getInstance();
-        BufferBuilder bufferBuilder = tessellator.getBuffer();
-        TextureManager textureManager = worldRendererAccess.getTextureManager();
-
-        textureManager.bindTexture(this.textures.getBottom());
-        for (int i = 0; i < 6; ++i) {
-            matrices.push();
-
-            // 0 = bottom
-            // 1 = north
-            // 2 = south
-            // 3 = top
-            // 4 = east
-            // 5 = west
-
-            if (i == 1) {
-                textureManager.bindTexture(this.textures.getNorth());
-                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(90.0F));
-            }
-
-            if (i == 2) {
-                textureManager.bindTexture(this.textures.getSouth());
-                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(-90.0F));
-                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(180.0F));
+        SkyRenderBackend backend = SkyboxManager.getInstance().getRenderBackend();
+        Matrix4f matrix4f = matrices.peek().getModel();
+
+        backend.color(1.0F, 1.0F, 1.0F, this.getAlpha(tickDelta));
+        if (this.atlasTexture != null) {
+            backend.bindTexture(this.atlasTexture);
+            backend.draw(SkyMesh.CUBE_ATLAS, 0, matrix4f);
+        } else {
+            int visibleFaces = SkyboxCube.getVisibleFaces(SkyboxManager.getInstance().getFrustum(), matrix4f);
+            for (int i = 0; i < SkyboxCube.FACES; ++i) {
+                if ((visibleFaces & (1 << i)) != 0) {
+                    backend.bindTexture(this.textures.getFace(i));
+                    backend.draw(SkyMesh.CUBE_FACE, i, matrix4f);
+                }
             }
-
-            if (i == 3) {
-                textureManager.bindTexture(this.textures.getTop());
-                matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(180.0F));
-                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(90.0F));
-            }
-
-            if (i == 4) {
-                textureManager.bindTexture(this.textures.getEast());
-                matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(90.0F));
-                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(-90.0F));
-            }
-
-            if (i == 5) {
-                textureManager.bindTexture(this.textures.getWest());
-                matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(-90.0F));
-                matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(90.0F));
-            }
-
-            Matrix4f matrix4f = matrices.peek().getModel();
-            bufferBuilder.begin(7, VertexFormats.POSITION_TEXTURE_COLOR);
-            bufferBuilder.vertex(matrix4f, -100.0F, -100.0F, -100.0F).texture(0.0F, 0.0F).color(1f, 1f, 1f, alpha).next();
-            bufferBuilder.vertex(matrix4f, -100.0F, -100.0F, 100.0F).texture(0.0F, 1.0F).color(1f, 1f, 1f, alpha).next();
-            bufferBuilder.vertex(matrix4f, 100.0F, -100.0F, 100.0F).texture(1.0F, 1.0F).color(1f, 1f, 1f, alpha).next();
-            bufferBuilder.vertex(matrix4f, 100.0F, -100.0F, -100.0F).texture(1.0F, 0.0F).color(1f, 1f, 1f, alpha).next();
-            tessellator.draw();
-            matrices.pop();
         }
+        backend.color(1.0F, 1.0F, 1.0F, 1.0F);
     }
 
     @Override
@@ -122,9 +106,77 @@ public class SquareTexturedSkybox extends TexturedSkybox {
         } catch (NullPointerException e) {
             throw new JsonParseException("Could not get a required field for skybox of type " + this.getType());
         }
+        this.stitched = jsonObjectWrapper.getOptionalBoolean("stitch", false);
+    }
+
+    @Override
+    public void collectSkyTextures(Consumer<Identifier> consumer) {
+        super.collectSkyTextures(consumer);
+        // Stitched faces are read by the atlas stitcher, they are only bound if stitching failed
+        if (this.textures != null && (!this.isStitched() || this.stitchFailed)) {
+            for (int i = 0; i < SkyboxCube.FACES; ++i) {
+                consumer.accept(this.textures.getFace(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return this.getClass() == SquareTexturedSkybox.class;
+    }
+
+    @Override
+    public void writeCache(DataOutput output) throws IOException {
+        super.writeCache(output);
+        output.writeBoolean(this.textures != null);
+        if (this.textures != null) {
+            writeTextures(output, this.textures);
+        }
+        output.writeBoolean(this.stitched);
+    }
+
+    @Override
+    public void readCache(DataInput input) throws IOException {
+        super.readCache(input);
+        if (input.readBoolean()) {
+            this.textures = readTextures(input);
+        }
+        this.stitched = input.readBoolean();
+    }
+
+    protected static Textures readTextures(DataInput input) throws IOException {
+        return new Textures(
+                SkyboxCache.readIdentifier(input),
+                SkyboxCache.readIdentifier(input),
+                SkyboxCache.readIdentifier(input),
+                SkyboxCache.readIdentifier(input),
+                SkyboxCache.readIdentifier(input),
+                SkyboxCache.readIdentifier(input)
+        );
+    }
+
+    protected static void writeTextures(DataOutput output, Textures textures) throws IOException {
+        SkyboxCache.writeIdentifier(output, textures.getNorth());
+        SkyboxCache.writeIdentifier(output, textures.getSouth());
+        SkyboxCache.writeIdentifier(output, textures.getEast());
+        SkyboxCache.writeIdentifier(output, textures.getWest());
+        SkyboxCache.writeIdentifier(output, textures.getTop());
+        SkyboxCache.writeIdentifier(output, textures.getBottom());
     }
 
     public Textures getTextures() {
         return this.textures;
     }
+
+    public boolean isStitched() {
+        return this.stitched;
+    }
+
+    public void setStitchFailed(boolean stitchFailed) {
+        this.stitchFailed = stitchFailed;
+    }
+
+    public void setAtlasTexture(Identifier atlasTexture) {
+        this.atlasTexture = atlasTexture;
+    }
 }
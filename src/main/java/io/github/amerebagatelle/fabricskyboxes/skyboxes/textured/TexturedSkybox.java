@@ -1,11 +1,18 @@
 package io.github.amerebagatelle.fabricskyboxes.skyboxes.textured;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+
 import com.mojang.blaze3d.platform.GlStateManager;
-import com.mojang.blaze3d.systems.RenderSystem;
+import io.github.amerebagatelle.fabricskyboxes.SkyboxManager;
 import io.github.amerebagatelle.fabricskyboxes.mixin.skybox.WorldRendererAccess;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.AbstractSkybox;
 import io.github.amerebagatelle.fabricskyboxes.skyboxes.RotatableSkybox;
 import io.github.amerebagatelle.fabricskyboxes.util.JsonObjectWrapper;
+import io.github.amerebagatelle.fabricskyboxes.util.MatrixStackSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.RenderStateTracker;
 import io.github.amerebagatelle.fabricskyboxes.util.object.Conditions;
 import io.github.amerebagatelle.fabricskyboxes.util.object.Decorations;
 import io.github.amerebagatelle.fabricskyboxes.util.object.DefaultProperties;
@@ -17,10 +24,21 @@ import net.minecraft.client.render.Tessellator;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.client.util.math.Vector3f;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.Identifier;
 
 public abstract class TexturedSkybox extends AbstractSkybox implements RotatableSkybox {
+    /**
+     * The matrices to restore after rendering, kept instead of pushing the stack so that rendering does not allocate.
+     * Skyboxes are only rendered on the render thread and one at a time, so a single copy is shared.
+     */
+    private static final MatrixStackSnapshot SAVED_MATRICES = new MatrixStackSnapshot();
     public Rotation rotation;
     public boolean blend;
+    /**
+     * Whether every texture passed to {@link #collectSkyTextures(Consumer)} was found to have no transparent pixels
+     * when it was decoded. Assigned by the {@code SkyboxTextureLoader}.
+     */
+    public transient boolean opaqueTextures;
 
     protected TexturedSkybox() {
     }
@@ -33,6 +51,7 @@ public abstract class TexturedSkybox extends AbstractSkybox implements Rotatable
 
     /**
      * Overrides and makes final here as there are options that should always be respected in a textured skybox.
+     * The render state is restored by the {@link SkyboxManager} once all skyboxes are rendered.
      *
      * @param worldRendererAccess Access to the worldRenderer as skyboxes often require it.
      * @param matrices            The current MatrixStack.
@@ -40,35 +59,28 @@ public abstract class TexturedSkybox extends AbstractSkybox implements Rotatable
      */
     @Override
     public final void render(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta) {
-        RenderSystem.disableAlphaTest();
-        RenderSystem.depthMask(false);
+        RenderStateTracker renderState = SkyboxManager.getInstance().getRenderState();
+        // the skyboxes and decorations rendered before this one leave the texture and fog in any state
+        renderState.enableTexture();
+        renderState.disableFog();
+        renderState.disableAlphaTest();
+        renderState.depthMask(false);
         this.setupBlendFunc();
 
-        Vector3f rotationStatic = this.rotation.getStatic();
-
-        ClientWorld world = MinecraftClient.getInstance().world;
-        assert world != null;
-        float timeRotation = !this.shouldRotate ? 0 : ((float) world.getTimeOfDay() / 24000) * 360;
-
-        matrices.push();
-        this.applyTimeRotation(matrices, timeRotation);
-        matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(rotationStatic.getX()));
-        matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(rotationStatic.getY()));
-        matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(rotationStatic.getZ()));
+        SAVED_MATRICES.save(matrices);
+        if (this.shouldRotate) {
+            ClientWorld world = MinecraftClient.getInstance().world;
+            assert world != null;
+            this.rotation.applyTimeRotation(matrices, world.getTimeOfDay());
+        }
+        this.rotation.applyStatic(matrices);
         this.renderSkybox(worldRendererAccess, matrices, tickDelta);
-        matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(rotationStatic.getZ()));
-        matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(rotationStatic.getY()));
-        matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(rotationStatic.getX()));
+        this.rotation.applyStaticReversed(matrices);
 
         BufferBuilder bufferBuilder = Tessellator.getInstance().getBuffer();
 
-        this.renderDecorations(worldRendererAccess, matrices, tickDelta, bufferBuilder, this.alpha);
-        matrices.pop();
-
-        RenderSystem.depthMask(true);
-        RenderSystem.enableTexture();
-        RenderSystem.disableBlend();
-        RenderSystem.enableAlphaTest();
+        this.renderDecorations(worldRendererAccess, matrices, tickDelta, bufferBuilder, this.getAlpha(tickDelta));
+        SAVED_MATRICES.restore(matrices);
     }
 
     /**
@@ -76,26 +88,37 @@ public abstract class TexturedSkybox extends AbstractSkybox implements Rotatable
      */
     public abstract void renderSkybox(WorldRendererAccess worldRendererAccess, MatrixStack matrices, float tickDelta);
 
+    /**
+     * A textured skybox hides everything beneath it when it is not blended, fully faded in, and its textures are opaque.
+     */
+    @Override
+    public boolean isOpaque(float tickDelta) {
+        return this.opaqueTextures && !this.blend && this.getAlpha(tickDelta) >= 1.0F;
+    }
+
+    @Override
+    public void collectTextures(Consumer<Identifier> consumer) {
+        super.collectTextures(consumer);
+        this.collectSkyTextures(consumer);
+    }
+
+    /**
+     * Passes the textures the sky itself is drawn with, leaving out the decorations drawn on top of it.
+     * Override this instead of {@link #collectTextures(Consumer)} if you are extending this skybox, so that
+     * the skybox can be found to be opaque.
+     */
+    public void collectSkyTextures(Consumer<Identifier> consumer) {
+    }
+
     /**
      * Sets up the blend for a textured skybox.
      */
     public void setupBlendFunc() {
-        RenderSystem.enableBlend();
+        RenderStateTracker renderState = SkyboxManager.getInstance().getRenderState();
+        renderState.enableBlend();
         if (this.blend)
-            RenderSystem.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE, GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
-        else RenderSystem.defaultBlendFunc();
-    }
-
-    private void applyTimeRotation(MatrixStack matrices, float timeRotation) {
-        // Very ugly, find a better way to do this
-        Vector3f timeRotationAxis = this.rotation.getAxis();
-        matrices.multiply(Vector3f.POSITIVE_X.getDegreesQuaternion(timeRotationAxis.getX()));
-        matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(timeRotationAxis.getY()));
-        matrices.multiply(Vector3f.POSITIVE_Z.getDegreesQuaternion(timeRotationAxis.getZ()));
-        matrices.multiply(Vector3f.POSITIVE_Y.getDegreesQuaternion(timeRotation));
-        matrices.multiply(Vector3f.NEGATIVE_Z.getDegreesQuaternion(timeRotationAxis.getZ()));
-        matrices.multiply(Vector3f.NEGATIVE_Y.getDegreesQuaternion(timeRotationAxis.getY()));
-        matrices.multiply(Vector3f.NEGATIVE_X.getDegreesQuaternion(timeRotationAxis.getX()));
+            renderState.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE, GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
+        else renderState.defaultBlendFunc();
     }
 
     @Override
@@ -105,6 +128,31 @@ public abstract class TexturedSkybox extends AbstractSkybox implements Rotatable
         this.blend = jsonObjectWrapper.getOptionalBoolean("shouldBlend", false);
     }
 
+    @Override
+    public void writeCache(DataOutput output) throws IOException {
+        super.writeCache(output);
+        this.writeVector(output, this.rotation.getStatic());
+        this.writeVector(output, this.rotation.getAxis());
+        output.writeBoolean(this.blend);
+    }
+
+    @Override
+    public void readCache(DataInput input) throws IOException {
+        super.readCache(input);
+        this.rotation = new Rotation(this.readVector(input), this.readVector(input));
+        this.blend = input.readBoolean();
+    }
+
+    private void writeVector(DataOutput output, Vector3f vector) throws IOException {
+        output.writeFloat(vector.getX());
+        output.writeFloat(vector.getY());
+        output.writeFloat(vector.getZ());
+    }
+
+    private Vector3f readVector(DataInput input) throws IOException {
+        return new Vector3f(input.readFloat(), input.readFloat(), input.readFloat());
+    }
+
     public boolean isBlend() {
         return this.blend;
     }
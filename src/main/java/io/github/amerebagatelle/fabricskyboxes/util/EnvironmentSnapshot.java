@@ -0,0 +1,83 @@
+package io.github.amerebagatelle.fabricskyboxes.util;
+
+import io.github.amerebagatelle.fabricskyboxes.util.object.Weather;
+
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * The state of the world that skybox conditions are checked against.
+ * Captured once per tick so that each skybox does not have to query the world itself.
+ */
+public class EnvironmentSnapshot {
+    private RegistryKey<World> worldKey;
+    private Registry<Biome> biomeRegistry;
+    private int biomeRawId = -1;
+    private int weatherMask;
+    private double playerY;
+    private int timeOfDay;
+
+    public void update(ClientWorld world, ClientPlayerEntity player) {
+        this.worldKey = world.getRegistryKey();
+        this.biomeRegistry = world.getRegistryManager().get(Registry.BIOME_KEY);
+        Biome biome = world.getBiome(player.getBlockPos());
+        this.biomeRawId = this.biomeRegistry.getRawId(biome);
+
+        // clear weather is always accepted, so skyboxes specifying it show in any weather
+        int weatherMask = Weather.CLEAR.getMask();
+        if (world.isThundering()) {
+            weatherMask |= Weather.THUNDER.getMask();
+        }
+        if (world.isRaining()) {
+            if (biome.getPrecipitation() == Biome.Precipitation.SNOW) {
+                weatherMask |= Weather.SNOW.getMask();
+            }
+            if (!world.isThundering()) {
+                weatherMask |= Weather.RAIN.getMask();
+            }
+        }
+        this.weatherMask = weatherMask;
+        this.playerY = player.getY();
+        this.timeOfDay = (int) Math.floorMod(world.getTimeOfDay(), 24000L); // modulo so that it's bound to 24000
+    }
+
+    /**
+     * Sets the state directly instead of reading it from a world, for use without a client such as in benchmarks.
+     */
+    public void set(RegistryKey<World> worldKey, Registry<Biome> biomeRegistry, int biomeRawId, int weatherMask, double playerY, int timeOfDay) {
+        this.worldKey = worldKey;
+        this.biomeRegistry = biomeRegistry;
+        this.biomeRawId = biomeRawId;
+        this.weatherMask = weatherMask;
+        this.playerY = playerY;
+        this.timeOfDay = Math.floorMod(timeOfDay, 24000);
+    }
+
+    public RegistryKey<World> getWorldKey() {
+        return this.worldKey;
+    }
+
+    public Registry<Biome> getBiomeRegistry() {
+        return this.biomeRegistry;
+    }
+
+    public int getBiomeRawId() {
+        return this.biomeRawId;
+    }
+
+    public int getWeatherMask() {
+        return this.weatherMask;
+    }
+
+    public double getPlayerY() {
+        return this.playerY;
+    }
+
+    public int getTimeOfDay() {
+        return this.timeOfDay;
+    }
+}
@@ -40,6 +40,14 @@ public class JsonObjectWrapper {
         return JsonHelper.isNumber(element) ? element.getAsFloat() : defaultValue;
     }
 
+    public int getOptionalInt(String key, int defaultValue) {
+        if (!this.getOptionalValue(key).isPresent()) {
+            return defaultValue;
+        }
+        JsonElement element = this.getOptionalValue(key).get();
+        return JsonHelper.isNumber(element) ? element.getAsInt() : defaultValue;
+    }
+
     public boolean getOptionalBoolean(String key, boolean defaultValue) {
         if (!this.getOptionalValue(key).isPresent()) {
             return defaultValue;
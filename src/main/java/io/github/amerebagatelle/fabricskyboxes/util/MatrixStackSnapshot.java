@@ -0,0 +1,39 @@
+package io.github.amerebagatelle.fabricskyboxes.util;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.Matrix3f;
+import net.minecraft.util.math.Matrix4f;
+import net.minecraft.util.math.Quaternion;
+
+/**
+ * A copy of the top entry of a {@link MatrixStack}, so that changes to it can be undone without
+ * {@link MatrixStack#push()}, which allocates a new entry and copies of both matrices every time.
+ * Only one copy is kept, so every nested save needs its own snapshot.
+ */
+public class MatrixStackSnapshot {
+    private final Matrix4f model = new Matrix4f(Quaternion.IDENTITY);
+    private final Matrix3f normal = new Matrix3f(Quaternion.IDENTITY);
+
+    public void save(MatrixStack matrices) {
+        MatrixStack.Entry entry = matrices.peek();
+        copy(entry.getModel(), this.model);
+        copy(entry.getNormal(), this.normal);
+    }
+
+    public void restore(MatrixStack matrices) {
+        MatrixStack.Entry entry = matrices.peek();
+        copy(this.model, entry.getModel());
+        copy(this.normal, entry.getNormal());
+    }
+
+    // the matrices cannot be set, but multiplying the identity by a matrix copies it exactly
+    private static void copy(Matrix4f source, Matrix4f target) {
+        target.loadIdentity();
+        target.multiply(source);
+    }
+
+    private static void copy(Matrix3f source, Matrix3f target) {
+        target.loadIdentity();
+        target.multiply(source);
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.amerebagatelle.fabricskyboxes.util;
+
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import com.mojang.blaze3d.platform.GlStateManager;
+
+/**
+ * Tracks the render state set while rendering skyboxes, so that a state is only passed on to the
+ * {@link SkyRenderBackend} when it actually changes.
+ * Skyboxes are rendered one after another with mostly the same state, so instead of each skybox resetting
+ * everything it changed, the state is restored once after the last skybox by {@link #end()}. In turn, every skybox
+ * must set each state it depends on, as the skyboxes before it may have left any state behind.
+ *
+ * <p>Skyboxes should change these states through the tracker rather than through the backend or
+ * {@code RenderSystem}, otherwise the tracker no longer knows the current state. Skyboxes that have to change
+ * them directly should call {@link #invalidate()} afterwards.</p>
+ */
+public class RenderStateTracker {
+    private static final int UNKNOWN = -1;
+
+    private SkyRenderBackend backend;
+    private int alphaTest = UNKNOWN;
+    private int depthMask = UNKNOWN;
+    private int blend = UNKNOWN;
+    private int texture = UNKNOWN;
+    private int fog = UNKNOWN;
+    private GlStateManager.SrcFactor srcFactor;
+    private GlStateManager.DstFactor dstFactor;
+    private GlStateManager.SrcFactor srcAlpha;
+    private GlStateManager.DstFactor dstAlpha;
+    private boolean blendFuncKnown;
+    private int changes;
+    private int avoidedChanges;
+    private int frameChanges;
+    private int frameAvoidedChanges;
+
+    public RenderStateTracker(SkyRenderBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * @return The backend that skyboxes render with.
+     */
+    public SkyRenderBackend getBackend() {
+        return this.backend;
+    }
+
+    public void setBackend(SkyRenderBackend backend) {
+        this.backend = backend;
+        this.invalidate();
+    }
+
+    /**
+     * Forgets the current state, as it may have been changed since the last frame. Called before rendering the skyboxes.
+     */
+    public void begin() {
+        this.invalidate();
+        this.frameChanges = 0;
+        this.frameAvoidedChanges = 0;
+    }
+
+    /**
+     * Restores the state vanilla expects after the sky is rendered, if it was changed. Called after rendering the skyboxes.
+     */
+    public void end() {
+        if (this.depthMask != UNKNOWN) {
+            this.depthMask(true);
+        }
+        if (this.texture != UNKNOWN) {
+            this.enableTexture();
+        }
+        if (this.blend != UNKNOWN) {
+            this.disableBlend();
+        }
+        if (this.alphaTest != UNKNOWN) {
+            this.enableAlphaTest();
+        }
+        // vanilla leaves the fog disabled after the sky, and enables it again for the terrain
+        if (this.fog != UNKNOWN) {
+            this.disableFog();
+        }
+    }
+
+    public void invalidate() {
+        this.alphaTest = UNKNOWN;
+        this.depthMask = UNKNOWN;
+        this.blend = UNKNOWN;
+        this.texture = UNKNOWN;
+        this.fog = UNKNOWN;
+        this.blendFuncKnown = false;
+    }
+
+    public void enableAlphaTest() {
+        if (this.update(this.alphaTest, 1)) {
+            this.alphaTest = 1;
+            this.backend.setCapability(SkyRenderBackend.Capability.ALPHA_TEST, true);
+        }
+    }
+
+    public void disableAlphaTest() {
+        if (this.update(this.alphaTest, 0)) {
+            this.alphaTest = 0;
+            this.backend.setCapability(SkyRenderBackend.Capability.ALPHA_TEST, false);
+        }
+    }
+
+    public void depthMask(boolean mask) {
+        if (this.update(this.depthMask, mask ? 1 : 0)) {
+            this.depthMask = mask ? 1 : 0;
+            this.backend.setCapability(SkyRenderBackend.Capability.DEPTH_MASK, mask);
+        }
+    }
+
+    public void enableBlend() {
+        if (this.update(this.blend, 1)) {
+            this.blend = 1;
+            this.backend.setCapability(SkyRenderBackend.Capability.BLEND, true);
+        }
+    }
+
+    public void disableBlend() {
+        if (this.update(this.blend, 0)) {
+            this.blend = 0;
+            this.backend.setCapability(SkyRenderBackend.Capability.BLEND, false);
+        }
+    }
+
+    public void enableTexture() {
+        if (this.update(this.texture, 1)) {
+            this.texture = 1;
+            this.backend.setCapability(SkyRenderBackend.Capability.TEXTURE, true);
+        }
+    }
+
+    public void disableTexture() {
+        if (this.update(this.texture, 0)) {
+            this.texture = 0;
+            this.backend.setCapability(SkyRenderBackend.Capability.TEXTURE, false);
+        }
+    }
+
+    public void enableFog() {
+        if (this.update(this.fog, 1)) {
+            this.fog = 1;
+            this.backend.setCapability(SkyRenderBackend.Capability.FOG, true);
+        }
+    }
+
+    public void disableFog() {
+        if (this.update(this.fog, 0)) {
+            this.fog = 0;
+            this.backend.setCapability(SkyRenderBackend.Capability.FOG, false);
+        }
+    }
+
+    public void defaultBlendFunc() {
+        this.blendFuncSeparate(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA, GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
+    }
+
+    public void blendFuncSeparate(GlStateManager.SrcFactor srcFactor, GlStateManager.DstFactor dstFactor, GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha) {
+        if (this.blendFuncKnown && this.srcFactor == srcFactor && this.dstFactor == dstFactor && this.srcAlpha == srcAlpha && this.dstAlpha == dstAlpha) {
+            this.avoidedChanges++;
+            this.frameAvoidedChanges++;
+            return;
+        }
+        this.changes++;
+        this.frameChanges++;
+        this.blendFuncKnown = true;
+        this.srcFactor = srcFactor;
+        this.dstFactor = dstFactor;
+        this.srcAlpha = srcAlpha;
+        this.dstAlpha = dstAlpha;
+        this.backend.blendFunc(srcFactor, dstFactor, srcAlpha, dstAlpha);
+    }
+
+    private boolean update(int current, int target) {
+        if (current == target) {
+            this.avoidedChanges++;
+            this.frameAvoidedChanges++;
+            return false;
+        }
+        this.changes++;
+        this.frameChanges++;
+        return true;
+    }
+
+    /**
+     * @return The number of state changes made since the game started.
+     */
+    public int getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * @return The number of redundant state changes skipped since the game started.
+     */
+    public int getAvoidedChanges() {
+        return this.avoidedChanges;
+    }
+
+    public int getFrameChanges() {
+        return this.frameChanges;
+    }
+
+    public int getFrameAvoidedChanges() {
+        return this.frameAvoidedChanges;
+    }
+}
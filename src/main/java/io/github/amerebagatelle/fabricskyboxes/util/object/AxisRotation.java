@@ -0,0 +1,62 @@
+package io.github.amerebagatelle.fabricskyboxes.util.object;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.util.math.Matrix3f;
+import net.minecraft.util.math.Matrix4f;
+import net.minecraft.util.math.Quaternion;
+
+/**
+ * A rotation by a changing angle around a fixed axis, applied without allocating. The matrices of vanilla
+ * cannot be set, so instead of turning each new angle into a new matrix, the rotations by every power of two
+ * fraction of a turn down to 1 / 2^{@value #BITS} are built once, and the rotation by an angle is the product
+ * of those matching the bits of the angle. The product is kept until the angle changes.
+ */
+public class AxisRotation {
+    private static final int BITS = 20;
+    private static final int STEPS = 1 << BITS;
+
+    private final Matrix4f[] stepModels = new Matrix4f[BITS];
+    private final Matrix3f[] stepNormals = new Matrix3f[BITS];
+    private final Matrix4f model = new Matrix4f(Quaternion.IDENTITY);
+    private final Matrix3f normal = new Matrix3f(Quaternion.IDENTITY);
+    private int steps;
+
+    /**
+     * @param axis  The axis to rotate around.
+     * @param frame The rotation of the axis itself, or {@link Quaternion#IDENTITY}.
+     */
+    public AxisRotation(Vector3f axis, Quaternion frame) {
+        Quaternion inverseFrame = new Quaternion(frame);
+        inverseFrame.conjugate();
+        for (int i = 0; i < BITS; i++) {
+            Quaternion quaternion = new Quaternion(frame);
+            quaternion.hamiltonProduct(axis.getDegreesQuaternion(360.0F * (1 << i) / STEPS));
+            quaternion.hamiltonProduct(inverseFrame);
+            this.stepModels[i] = new Matrix4f(quaternion);
+            this.stepNormals[i] = new Matrix3f(quaternion);
+        }
+    }
+
+    /**
+     * Rotates the matrices by the given fraction of a turn.
+     */
+    public void apply(MatrixStack matrices, double turns) {
+        int steps = (int) Math.floorMod(Math.round(turns * STEPS), (long) STEPS);
+        if (steps != this.steps) {
+            // rotations around the same axis commute, so the order of the steps does not matter
+            this.model.loadIdentity();
+            this.normal.loadIdentity();
+            for (int i = 0; i < BITS; i++) {
+                if ((steps & (1 << i)) != 0) {
+                    this.model.multiply(this.stepModels[i]);
+                    this.normal.multiply(this.stepNormals[i]);
+                }
+            }
+            this.steps = steps;
+        }
+        MatrixStack.Entry entry = matrices.peek();
+        entry.getModel().multiply(this.model);
+        entry.getNormal().multiply(this.normal);
+    }
+}
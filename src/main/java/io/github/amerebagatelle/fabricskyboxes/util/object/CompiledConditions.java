@@ -0,0 +1,109 @@
+package io.github.amerebagatelle.fabricskyboxes.util.object;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * {@link Conditions} compiled into primitive structures, so that checking them
+ * against an {@link EnvironmentSnapshot} only reads a few fields and bits.
+ *
+ * <p>Biome raw ids are only known once a world is joined, so the biome
+ * {@link BitSet} is rebuilt whenever the biome registry changes.</p>
+ */
+public class CompiledConditions {
+    private final Set<RegistryKey<World>> worlds = Sets.newIdentityHashSet();
+    private final Collection<Identifier> biomes;
+    private final BitSet biomeRawIds = new BitSet();
+    private Registry<Biome> biomeRegistry;
+    private final int weatherMask;
+    private final float[] heights;
+
+    public CompiledConditions(Collection<Identifier> worlds, Collection<Identifier> biomes, Collection<String> weathers, Collection<HeightEntry> heights) {
+        for (Identifier world : worlds) {
+            // RegistryKeys are interned, so they can be compared by identity
+            this.worlds.add(RegistryKey.of(Registry.DIMENSION, world));
+        }
+        this.biomes = biomes;
+        int weatherMask = 0;
+        for (Weather weather : Weather.values()) {
+            if (weathers.contains(weather.toString())) {
+                weatherMask |= weather.getMask();
+            }
+        }
+        this.weatherMask = weatherMask;
+        this.heights = new float[heights.size() * 2];
+        int i = 0;
+        for (HeightEntry height : heights) {
+            this.heights[i++] = height.getMin();
+            this.heights[i++] = height.getMax();
+        }
+    }
+
+    /**
+     * @return Whether the current world is valid.
+     */
+    public boolean testWorld(EnvironmentSnapshot environment) {
+        return this.worlds.isEmpty() || this.worlds.contains(environment.getWorldKey());
+    }
+
+    /**
+     * @return Whether the current world and biome are valid.
+     */
+    public boolean testBiomes(EnvironmentSnapshot environment) {
+        if (!this.testWorld(environment)) {
+            return false;
+        }
+        if (this.biomes.isEmpty()) {
+            return true;
+        }
+        if (this.biomeRegistry != environment.getBiomeRegistry()) {
+            this.compileBiomes(environment.getBiomeRegistry());
+        }
+        int rawId = environment.getBiomeRawId();
+        return rawId >= 0 && this.biomeRawIds.get(rawId);
+    }
+
+    /**
+     * @return Whether the current height is valid.
+     */
+    public boolean testHeights(EnvironmentSnapshot environment) {
+        if (this.heights.length == 0) {
+            return true;
+        }
+        double playerHeight = environment.getPlayerY();
+        for (int i = 0; i < this.heights.length; i += 2) {
+            if (this.heights[i] < playerHeight && this.heights[i + 1] > playerHeight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the current weather is valid.
+     */
+    public boolean testWeather(EnvironmentSnapshot environment) {
+        return this.weatherMask == 0 || (this.weatherMask & environment.getWeatherMask()) != 0;
+    }
+
+    private void compileBiomes(Registry<Biome> registry) {
+        this.biomeRawIds.clear();
+        for (Identifier id : this.biomes) {
+            Biome biome = registry.get(id);
+            if (biome != null) {
+                this.biomeRawIds.set(registry.getRawId(biome));
+            }
+        }
+        this.biomeRegistry = registry;
+    }
+}
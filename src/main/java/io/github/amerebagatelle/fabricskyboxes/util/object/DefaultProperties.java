@@ -14,7 +14,8 @@ public class DefaultProperties {
             Codec.BOOL.optionalFieldOf("changeFog", false).forGetter(DefaultProperties::isChangeFog),
             RGBA.CODEC.optionalFieldOf("fogColors", RGBA.ZERO).forGetter(DefaultProperties::getFogColors),
             Codec.BOOL.optionalFieldOf("shouldRotate", false).forGetter(DefaultProperties::isShouldRotate),
-            Rotation.CODEC.optionalFieldOf("rotation", Rotation.DEFAULT).forGetter(DefaultProperties::getRotation)
+            Rotation.CODEC.optionalFieldOf("rotation", Rotation.DEFAULT).forGetter(DefaultProperties::getRotation),
+            Codec.INT.optionalFieldOf("priority", 0).forGetter(DefaultProperties::getPriority)
     ).apply(instance, DefaultProperties::new));
     private final Fade fade;
     private final float maxAlpha;
@@ -23,8 +24,9 @@ public class DefaultProperties {
     private final RGBA fogColors;
     private final boolean shouldRotate;
     private final Rotation rotation;
+    private final int priority;
 
-    public DefaultProperties(Fade fade, float maxAlpha, float transitionSpeed, boolean changeFog, RGBA fogColors, boolean shouldRotate, Rotation rotation) {
+    public DefaultProperties(Fade fade, float maxAlpha, float transitionSpeed, boolean changeFog, RGBA fogColors, boolean shouldRotate, Rotation rotation, int priority) {
         this.fade = fade;
         this.maxAlpha = maxAlpha;
         this.transitionSpeed = transitionSpeed;
@@ -32,6 +34,7 @@ public class DefaultProperties {
         this.fogColors = fogColors;
         this.shouldRotate = shouldRotate;
         this.rotation = rotation;
+        this.priority = priority;
     }
 
     public Fade getFade() {
@@ -62,6 +65,10 @@ public class DefaultProperties {
         return this.rotation;
     }
 
+    public int getPriority() {
+        return this.priority;
+    }
+
     public static DefaultProperties ofSkybox(AbstractSkybox skybox) {
         Rotation rot = Rotation.DEFAULT;
         if (skybox instanceof RotatableSkybox) {
@@ -75,6 +82,7 @@ public class DefaultProperties {
                 .fade(skybox.getFade())
                 .maxAlpha(skybox.getMaxAlpha())
                 .rotation(rot)
+                .priority(skybox.getPriority())
                 .build();
     }
 
@@ -86,6 +94,7 @@ public class DefaultProperties {
         private RGBA fogColors = RGBA.ZERO;
         private boolean shouldRotate = false;
         private Rotation rotation = Rotation.DEFAULT;
+        private int priority = 0;
 
         public Builder fade(Fade fade) {
             this.fade = fade;
@@ -117,6 +126,11 @@ public class DefaultProperties {
             return this;
         }
 
+        public Builder priority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
         public Builder rotates() {
             this.shouldRotate = true;
             return this;
@@ -139,7 +153,7 @@ public class DefaultProperties {
         }
 
         public DefaultProperties build() {
-            return new DefaultProperties(this.fade, this.maxAlpha, this.transitionSpeed, this.changeFog, this.fogColors, this.shouldRotate, this.rotation);
+            return new DefaultProperties(this.fade, this.maxAlpha, this.transitionSpeed, this.changeFog, this.fogColors, this.shouldRotate, this.rotation, this.priority);
         }
     }
 }
@@ -1,5 +1,7 @@
 package io.github.amerebagatelle.fabricskyboxes.util.object;
 
+import java.util.Objects;
+
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
@@ -45,4 +47,17 @@ public class Fade {
     public boolean isAlwaysOn() {
         return alwaysOn;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Fade fade = (Fade) o;
+        return this.startFadeIn == fade.startFadeIn && this.endFadeIn == fade.endFadeIn && this.startFadeOut == fade.startFadeOut && this.endFadeOut == fade.endFadeOut && this.alwaysOn == fade.alwaysOn;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.startFadeIn, this.endFadeIn, this.startFadeOut, this.endFadeOut, this.alwaysOn);
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.amerebagatelle.fabricskyboxes.util.object;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.amerebagatelle.fabricskyboxes.util.Utils;
+
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * A {@link Fade} evaluated for every tick of the day, so that the maximum alpha
+ * of a skybox at a given time is a single array read.
+ *
+ * <p>Tables are shared between all skyboxes using an equal {@link Fade}. Values are
+ * stored as 16 bit fixed point numbers, which keeps a table at 48 KB.</p>
+ */
+public class FadeTable {
+    private static final Map<Fade, FadeTable> TABLES = new ConcurrentHashMap<>();
+    private static final int DAY_LENGTH = 24000;
+    private static final float SCALE = 65535F;
+    private final char[] table = new char[DAY_LENGTH];
+
+    private FadeTable(Fade fade) {
+        for (int time = 0; time < DAY_LENGTH; time++) {
+            this.table[time] = (char) Math.round(MathHelper.clamp(computeMaxAlpha(fade, time), 0F, 1F) * SCALE);
+        }
+    }
+
+    /**
+     * @return The table for the given fade, shared with every other equal fade.
+     */
+    public static FadeTable of(Fade fade) {
+        return TABLES.computeIfAbsent(fade, FadeTable::new);
+    }
+
+    /**
+     * Forgets the shared tables, so that the tables of unloaded skyboxes can be collected. Tables still in use are
+     * kept by their skyboxes, they are only no longer shared with skyboxes created afterwards. Called when a
+     * reload starts, before the new skyboxes are decoded, so that they share tables among themselves.
+     */
+    public static void clearCache() {
+        TABLES.keySet().removeIf(fade -> !fade.equals(Fade.ZERO));
+    }
+
+    /**
+     * @param timeOfDay The time of day, between 0 and 23999.
+     * @return The maximum alpha allowed by the fade at that time.
+     */
+    public float getMaxAlpha(int timeOfDay) {
+        return this.table[timeOfDay] / SCALE;
+    }
+
+    private static float computeMaxAlpha(Fade fade, int currentTime) {
+        int duration = Utils.getTicksBetween(fade.getStartFadeIn(), fade.getEndFadeIn());
+        if (fade.getStartFadeIn() < currentTime && fade.getEndFadeIn() >= currentTime) {
+            // fading in
+            return 1f - (((float) (fade.getStartFadeIn() + duration - currentTime)) / duration);
+        } else if (fade.getEndFadeIn() < currentTime && fade.getStartFadeOut() >= currentTime) {
+            // fully faded in
+            return 1f;
+        } else if (fade.getStartFadeOut() < currentTime && fade.getEndFadeOut() >= currentTime) {
+            // fading out
+            return (float) (fade.getEndFadeOut() - currentTime) / duration;
+        }
+        // not showing
+        return 0f;
+    }
+}
@@ -4,8 +4,17 @@ import com.google.common.collect.ImmutableList;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.util.math.Matrix3f;
+import net.minecraft.util.math.Matrix4f;
+import net.minecraft.util.math.Quaternion;
 
+/**
+ * The rotation of a skybox. The static rotation and the axis of the time of day rotation are constant,
+ * so their matrices are built once, the first time they are needed, and only the time of day angle has
+ * to be turned into a rotation as the world time changes.
+ */
 public class Rotation {
     private static final Codec<Vector3f> VEC_3_F = Codec.FLOAT.listOf().comapFlatMap((list) -> {
         if (list.size() < 3) {
@@ -21,12 +30,79 @@ public class Rotation {
 
     private final Vector3f staticRot;
     private final Vector3f axisRot;
+    private Matrix4f staticModel;
+    private Matrix3f staticNormal;
+    private Matrix4f staticReverseModel;
+    private Matrix3f staticReverseNormal;
+    private Quaternion axis;
+    private AxisRotation timeRotation;
 
     public Rotation(Vector3f staticRot, Vector3f axisRot) {
         this.staticRot = staticRot;
         this.axisRot = axisRot;
     }
 
+    /**
+     * Rotates the matrices by the static rotation, around X, then Y, then Z.
+     */
+    public void applyStatic(MatrixStack matrices) {
+        if (this.staticModel == null) {
+            this.build();
+        }
+        MatrixStack.Entry entry = matrices.peek();
+        entry.getModel().multiply(this.staticModel);
+        entry.getNormal().multiply(this.staticNormal);
+    }
+
+    /**
+     * Rotates the matrices by the static rotation again, around Z, then Y, then X, which is how skyboxes place
+     * their decorations after rendering.
+     */
+    public void applyStaticReversed(MatrixStack matrices) {
+        if (this.staticModel == null) {
+            this.build();
+        }
+        MatrixStack.Entry entry = matrices.peek();
+        entry.getModel().multiply(this.staticReverseModel);
+        entry.getNormal().multiply(this.staticReverseNormal);
+    }
+
+    /**
+     * Rotates the matrices by the time of day around the Y axis tilted by the axis rotation, without allocating.
+     *
+     * @param timeOfDay The time of day of the world, in ticks.
+     */
+    public void applyTimeRotation(MatrixStack matrices, long timeOfDay) {
+        if (this.timeRotation == null) {
+            if (this.staticModel == null) {
+                this.build();
+            }
+            this.timeRotation = new AxisRotation(Vector3f.POSITIVE_Y, this.axis);
+        }
+        this.timeRotation.apply(matrices, Math.floorMod(timeOfDay, 24000L) / 24000.0D);
+    }
+
+    private void build() {
+        Quaternion x = Vector3f.POSITIVE_X.getDegreesQuaternion(this.staticRot.getX());
+        Quaternion y = Vector3f.POSITIVE_Y.getDegreesQuaternion(this.staticRot.getY());
+        Quaternion z = Vector3f.POSITIVE_Z.getDegreesQuaternion(this.staticRot.getZ());
+        Quaternion forward = new Quaternion(x);
+        forward.hamiltonProduct(y);
+        forward.hamiltonProduct(z);
+        Quaternion reverse = new Quaternion(z);
+        reverse.hamiltonProduct(y);
+        reverse.hamiltonProduct(x);
+
+        this.axis = Vector3f.POSITIVE_X.getDegreesQuaternion(this.axisRot.getX());
+        this.axis.hamiltonProduct(Vector3f.POSITIVE_Y.getDegreesQuaternion(this.axisRot.getY()));
+        this.axis.hamiltonProduct(Vector3f.POSITIVE_Z.getDegreesQuaternion(this.axisRot.getZ()));
+
+        this.staticReverseModel = new Matrix4f(reverse);
+        this.staticReverseNormal = new Matrix3f(reverse);
+        this.staticNormal = new Matrix3f(forward);
+        this.staticModel = new Matrix4f(forward);
+    }
+
     public Vector3f getStatic() {
         return this.staticRot;
     }
@@ -1,5 +1,7 @@
 package io.github.amerebagatelle.fabricskyboxes.util.object;
 
+import java.util.Objects;
+
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
@@ -53,4 +55,40 @@ public class Textures {
     public Identifier getBottom() {
         return this.bottom;
     }
+
+    /**
+     * @param face The face of the skybox cube: 0 = bottom, 1 = north, 2 = south, 3 = top, 4 = east, 5 = west.
+     * @return The texture for that face.
+     */
+    public Identifier getFace(int face) {
+        switch (face) {
+            case 0:
+                return this.bottom;
+            case 1:
+                return this.north;
+            case 2:
+                return this.south;
+            case 3:
+                return this.top;
+            case 4:
+                return this.east;
+            case 5:
+                return this.west;
+            default:
+                throw new IllegalArgumentException("Invalid face " + face);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Textures textures = (Textures) o;
+        return Objects.equals(this.north, textures.north) && Objects.equals(this.south, textures.south) && Objects.equals(this.east, textures.east) && Objects.equals(this.west, textures.west) && Objects.equals(this.top, textures.top) && Objects.equals(this.bottom, textures.bottom);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.north, this.south, this.east, this.west, this.top, this.bottom);
+    }
 }
\ No newline at end of file
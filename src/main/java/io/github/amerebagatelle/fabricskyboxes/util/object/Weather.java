@@ -32,6 +32,13 @@ public enum Weather {
         VALUES = builder.build();
     }
 
+    /**
+     * @return The bit representing this weather in a weather bitmask.
+     */
+    public int getMask() {
+        return 1 << this.ordinal();
+    }
+
     @Override
     public String toString() {
         return this.name;
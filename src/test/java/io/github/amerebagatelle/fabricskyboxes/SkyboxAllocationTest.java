@@ -0,0 +1,114 @@
+package io.github.amerebagatelle.fabricskyboxes;
+
+import java.lang.management.ManagementFactory;
+
+import io.github.amerebagatelle.fabricskyboxes.render.RecordingSkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.render.SkyRenderBackend;
+import io.github.amerebagatelle.fabricskyboxes.util.EnvironmentSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.MatrixStackSnapshot;
+import io.github.amerebagatelle.fabricskyboxes.util.object.AxisRotation;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Fade;
+import io.github.amerebagatelle.fabricskyboxes.util.object.Rotation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.client.util.math.Vector3f;
+import net.minecraft.util.math.Quaternion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that rendering the sky allocates nothing once it is warmed up, by measuring the bytes allocated by the
+ * test thread over many operations. Any object allocated by every operation shows up as at least one byte per
+ * operation, while one-off allocations, such as lazily built rotations, are spread out to nothing.
+ *
+ * <p>Only what runs without a world is covered: a frame of square skyboxes through the {@link RecordingSkyRenderBackend},
+ * and the time of day and sky angle rotations, which rotating skyboxes and the decorations apply with the time and
+ * sky angle of the world. Monocolor skyboxes are not covered, as they draw the vanilla sky with vanilla helpers
+ * such as {@code SkyProperties#getSkyColor}, which allocate.</p>
+ */
+public class SkyboxAllocationTest {
+    private static final int SKYBOXES = 50;
+    private static final int WARMUP_OPERATIONS = 20000;
+    private static final int OPERATIONS = 20000;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static SkyboxManager manager;
+    private static SkyRenderBackend previousBackend;
+
+    private final MatrixStack matrices = new MatrixStack();
+    private final MatrixStackSnapshot savedMatrices = new MatrixStackSnapshot();
+
+    @BeforeAll
+    public static void setup() {
+        BenchmarkSupport.bootstrap();
+        manager = SkyboxManager.getInstance();
+        manager.clearSkyboxes();
+        for (int i = 0; i < SKYBOXES; i++) {
+            manager.addSkybox(BenchmarkSupport.createSquareSkybox(i, new Fade(0, 0, 0, 0, true)));
+        }
+        RecordingSkyRenderBackend backend = new RecordingSkyRenderBackend();
+        backend.setRecordCommands(false);
+        previousBackend = manager.getRenderBackend();
+        manager.setRenderBackend(backend);
+        EnvironmentSnapshot environment = BenchmarkSupport.createEnvironment(64.0D, 6000);
+        // twice, so that the previous alpha is set as well
+        manager.tick(environment);
+        manager.tick(environment);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        manager.setRenderBackend(previousBackend);
+        manager.clearSkyboxes();
+    }
+
+    @Test
+    public void renderSkyboxes() {
+        assertNoAllocation(() -> manager.renderSkyboxes(null, this.matrices, 0.5F));
+    }
+
+    /**
+     * The world time changes every tick, so every call rebuilds the rotation.
+     */
+    @Test
+    public void timeRotation() {
+        Rotation rotation = new Rotation(new Vector3f(0.0F, 30.0F, 0.0F), new Vector3f(20.0F, 0.0F, 10.0F));
+        long[] timeOfDay = new long[1];
+        assertNoAllocation(() -> {
+            this.savedMatrices.save(this.matrices);
+            rotation.applyTimeRotation(this.matrices, timeOfDay[0]++);
+            this.savedMatrices.restore(this.matrices);
+        });
+    }
+
+    /**
+     * The sky angle changes every frame.
+     */
+    @Test
+    public void skyAngle() {
+        AxisRotation skyAngle = new AxisRotation(Vector3f.POSITIVE_X, Quaternion.IDENTITY);
+        float[] turns = new float[1];
+        assertNoAllocation(() -> {
+            turns[0] = (turns[0] + 0.0001F) % 1.0F;
+            this.savedMatrices.save(this.matrices);
+            skyAngle.apply(this.matrices, turns[0]);
+            this.savedMatrices.restore(this.matrices);
+        });
+    }
+
+    private static void assertNoAllocation(Runnable operation) {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long start = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.run();
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - start;
+        assertEquals(0L, allocated / OPERATIONS, () -> "Allocated " + allocated + " bytes over " + OPERATIONS + " operations");
+    }
+}